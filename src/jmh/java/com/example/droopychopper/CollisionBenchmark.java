@@ -0,0 +1,71 @@
+package com.example.droopychopper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+
+/*
+  Measures testing the chopper against a number of obstacles, both with the box test used by
+  Sprite.intersectsSprite and with the swept test used along each tick's movement.
+*/
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+    // Number of obstacles tested against the chopper
+    @Param({"2", "20", "200"})
+    private int obstacles;
+
+    private Body chopper;
+    private Body[] bodies;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        chopper = new Body(GameWorld.CHOPPER_WIDTH, GameWorld.CHOPPER_HEIGHT);
+        chopper.setPositionXY(GameWorld.CHOPPER_START_X, GameWorld.CHOPPER_START_Y);
+        // The chopper moves during the tick, so the swept test has a path to check
+        chopper.moveTo(GameWorld.CHOPPER_START_X, GameWorld.CHOPPER_START_Y + 6);
+
+        bodies = new Body[obstacles];
+        for (int i = 0; i < obstacles; i++) {
+            bodies[i] = new Body(Pipe.PIPE_WIDTH, 25 + random.nextInt(386));
+            bodies[i].setPositionXY(random.nextInt(GameWorld.WIDTH), random.nextInt(GameWorld.FLOOR_Y));
+        }
+    }
+
+    // Returns the number of obstacles whose box overlaps the chopper's
+    @Benchmark
+    public int intersects() {
+        int hits = 0;
+        for (Body body : bodies) {
+            if (chopper.intersects(body)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    // Returns the number of obstacles the chopper touches along its movement
+    @Benchmark
+    public int sweep() {
+        int hits = 0;
+        for (Body body : bodies) {
+            if (chopper.sweepTime(body) >= 0) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}
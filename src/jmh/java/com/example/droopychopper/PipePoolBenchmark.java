@@ -0,0 +1,65 @@
+package com.example.droopychopper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  Measures the pipe bookkeeping done while scrolling: spawning pairs into a full pool, which
+  recycles the oldest one, and the broad-phase lookup of the pairs around the chopper.
+*/
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PipePoolBenchmark {
+    // Number of pipe pairs the pool holds
+    @Param({"2", "20", "200"})
+    private int capacity;
+
+    private PipePool pool;
+    private int nextHeight;
+
+    @Setup
+    public void setUp() {
+        pool = new PipePool(capacity);
+        for (int i = 0; i < capacity; i++) {
+            PipePair pair = pool.spawn(25 + i % 386);
+            pair.shiftX(-(capacity - i) * (Pipe.PIPE_WIDTH + 10.0));
+        }
+    }
+
+    // Spawns a pair into the full pool, recycling the oldest one as the game does
+    @Benchmark
+    public PipePair spawnAndRecycle() {
+        nextHeight = nextHeight == 410 ? 25 : nextHeight + 1;
+        return pool.spawn(nextHeight);
+    }
+
+    // Moves every pair by one tick, as GameWorld.movePipes does
+    @Benchmark
+    public double movePairs() {
+        double time = GameWorld.TICK_SECONDS;
+        for (int i = 0; i < pool.size(); i++) {
+            PipePair pair = pool.get(i);
+            pair.storePreviousPosition();
+            pair.setVelocity(GameWorld.SCROLL_VELOCITY, 0);
+            pair.update(time);
+        }
+        return pool.getLast().getPositionX();
+    }
+
+    // Finds the first pair ending right of the chopper, as the collision and score checks do
+    @Benchmark
+    public int broadPhase() {
+        return pool.firstEndingAfter(GameWorld.CHOPPER_START_X);
+    }
+}
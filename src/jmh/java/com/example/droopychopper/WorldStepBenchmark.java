@@ -0,0 +1,81 @@
+package com.example.droopychopper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+  Measures whole simulation steps: one GameWorld tick, and one frame of the game loop, which runs as
+  many ticks as the frame time holds. The chopper is flown by a simple autopilot so that pipes keep
+  spawning and scoring, and a new game starts whenever one ends. Every game uses the same seed,
+  so every run measures the same pipes.
+*/
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldStepBenchmark {
+    // Seed of every game played by the benchmark
+    private static final long SEED = 1;
+
+    // Frame rate of the game loop, only used by the frame benchmark
+    @State(Scope.Thread)
+    public static class Frames {
+        // Time between two frames in seconds: 60 and 30 frames per second, and the longest frame allowed
+        @Param({"0.016666", "0.033333", "0.25"})
+        private double frameTime;
+
+        private final FixedTimestep timestep = new FixedTimestep(GameWorld.TICK_SECONDS);
+    }
+
+    private GameWorld world;
+
+    @Setup
+    public void setUp() {
+        world = new GameWorld(GameWorld.TICK_SECONDS, SEED);
+        world.onUserInput();
+    }
+
+    // Advances the world by one tick
+    @Benchmark
+    public int tick() {
+        step();
+        return world.getTotalScore();
+    }
+
+    // Advances the world by one frame of the game loop
+    @Benchmark
+    public int frame(Frames frames) {
+        int ticks = frames.timestep.advance(frames.frameTime);
+        for (int i = 0; i < ticks; i++) {
+            step();
+        }
+        return world.getTotalScore();
+    }
+
+    // Flies the chopper through the next gap and ticks the world, starting over when the game ends
+    private void step() {
+        if (world.isGameOver()) {
+            world.reset(SEED);
+            world.onUserInput();
+        }
+        Body chopper = world.getChopper();
+        PipePool pipes = world.getPipes();
+        int next = pipes.firstEndingAfter(chopper.getPositionX());
+        double gapBottom = next < pipes.size()
+                ? pipes.get(next).getUpPipe().getPipe().getPositionY()
+                : GameWorld.FLOOR_Y;
+        if (chopper.getMaxY() > gapBottom - 20 && chopper.getVelocityY() > 0) {
+            world.onUserInput();
+        }
+        world.tick();
+    }
+}
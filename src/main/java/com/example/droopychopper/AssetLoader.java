@@ -0,0 +1,110 @@
+package com.example.droopychopper;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleConsumer;
+
+/*
+  The AssetLoader class decodes every image and sound of the game on a pool of worker threads when
+  the application starts, so the menu and the game find them ready and never wait for the disk.
+  Images go into the shared ImageCache, together with the collision masks the game needs; sounds
+  are decoded by the SoundManager's backend.
+  An asset missing from the manifest is still loaded on first use, on the thread that asks for it.
+*/
+public class AssetLoader {
+    // An image of the manifest: its path, the size it is drawn at (0 for its own size), and if it needs a collision mask
+    private record ImageAsset(String path, int width, int height, boolean masked) {
+    }
+
+    // Every image used by the menu and the game
+    private static final List<ImageAsset> IMAGES = List.of(
+            // Menu
+            new ImageAsset("/images/title.png", 0, 0, false),
+            new ImageAsset("/images/chopper2.gif", 0, 0, false),
+            new ImageAsset("/images/start.png", 0, 0, false),
+            new ImageAsset("/images/exit.png", 0, 0, false),
+            // Game screen
+            new ImageAsset("/images/background.gif", 0, 0, false),
+            new ImageAsset("/images/background_night.png", 0, 0, false),
+            new ImageAsset("/images/game_over.png", 0, 0, false),
+            new ImageAsset("/images/ready.png", 0, 0, false),
+            new ImageAsset("/images/credit.png", 0, 0, false),
+            new ImageAsset("/images/mute.png", 0, 0, false),
+            new ImageAsset("/images/unmute.png", 0, 0, false),
+            // Sprites
+            new ImageAsset("/images/floor.png", GameWorld.FLOOR_WIDTH, GameWorld.FLOOR_HEIGHT, false),
+            new ImageAsset("/images/chopper1.gif", GameWorld.CHOPPER_WIDTH, GameWorld.CHOPPER_HEIGHT, true),
+            new ImageAsset("/images/chopper2.gif", GameWorld.CHOPPER_WIDTH, GameWorld.CHOPPER_HEIGHT, true),
+            new ImageAsset("/images/chopper3.gif", GameWorld.CHOPPER_WIDTH, GameWorld.CHOPPER_HEIGHT, true),
+            new ImageAsset("/images/up_jar.png", PipeSkin.TEXTURE_WIDTH, PipeSkin.TEXTURE_HEIGHT, true),
+            new ImageAsset("/images/down_jar.png", PipeSkin.TEXTURE_WIDTH, PipeSkin.TEXTURE_HEIGHT, true)
+    );
+
+    // Every sound effect used by the game
+    private static final List<String> SOUNDS = List.of(
+            "/sounds/score.mp3", "/sounds/hit.mp3", "/sounds/wing.mp3", "/sounds/swoosh.mp3", "/sounds/die.mp3",
+            "/sounds/music2.mp3", "/sounds/music3.mp3", "/sounds/rain.mp3"
+    );
+
+    // The loader used by the whole game
+    private static final AssetLoader SHARED = new AssetLoader();
+
+    // Returns the loader used by the whole game
+    public static AssetLoader getShared() {
+        return SHARED;
+    }
+
+    /*
+      Loads every asset of the manifest on a pool of worker threads.
+      Progress - receives the fraction of assets loaded, from 0 to 1, on the worker threads
+      Return a future completed when every asset is loaded; assets that fail to load are reported and skipped
+    */
+    public CompletableFuture<Void> loadAll(DoubleConsumer progress) {
+        int total = IMAGES.size() + SOUNDS.size();
+        int threads = Math.max(2, Math.min(total, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "asset-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger loaded = new AtomicInteger();
+        Runnable done = () -> progress.accept(loaded.incrementAndGet() / (double) total);
+
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[total];
+        int i = 0;
+        for (ImageAsset image : IMAGES) {
+            tasks[i++] = CompletableFuture.runAsync(() -> loadImage(image), pool)
+                    .whenComplete(report(image.path(), done));
+        }
+        for (String sound : SOUNDS) {
+            tasks[i++] = CompletableFuture.runAsync(() -> SoundManager.getShared().load(sound), pool)
+                    .whenComplete(report(sound, done));
+        }
+        return CompletableFuture.allOf(tasks)
+                .handle((result, error) -> null)
+                .thenRun(pool::shutdown);
+    }
+
+    // Counts an asset as done, printing the error if it could not be loaded
+    private static BiConsumer<Object, Throwable> report(String path, Runnable done) {
+        return (result, error) -> {
+            if (error != null) {
+                System.err.println("Could not load " + path + ": " + error.getCause());
+            }
+            done.run();
+        };
+    }
+
+    // Decodes an image into the shared cache, and builds its collision mask if the game needs one
+    private static void loadImage(ImageAsset image) {
+        if (image.masked()) {
+            ImageCache.getShared().getMask(image.path(), image.width(), image.height());
+        } else {
+            ImageCache.getShared().get(image.path(), image.width(), image.height());
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.droopychopper;
+
+/*
+  The Body class is the plain-Java physics part of a game object: position, velocity and size.
+  It has no JavaFX types, so the game simulation can run without a window.
+ */
+public class Body {
+    // Position of the body
+    private double positionX;
+    private double positionY;
+
+    // Position at the start of the current simulation tick, used to draw between ticks
+    private double previousX;
+    private double previousY;
+
+    // Velocity of the body
+    private double velocityX;
+    private double velocityY;
+
+    // Dimensions of the body
+    private double width;
+    private double height;
+
+    // Default constructor initializing position and velocity to 0
+    public Body() {
+        this.positionX = 0;
+        this.positionY = 0;
+        this.velocityX = 0;
+        this.velocityY = 0;
+    }
+
+    // Creates a body with the given dimensions
+    public Body(double width, double height) {
+        this();
+        setSize(width, height);
+    }
+
+    // Sets the dimensions of the body
+    public void setSize(double width, double height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // Sets the position of the body, without drawing a movement from the old position
+    public void setPositionXY(double positionX, double positionY) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.previousX = positionX;
+        this.previousY = positionY;
+    }
+
+    // Remembers the current position as the start of a new simulation tick
+    public void storePreviousPosition() {
+        this.previousX = positionX;
+        this.previousY = positionY;
+    }
+
+    // Returns the X position at the start of the current tick
+    public double getPreviousX() {
+        return previousX;
+    }
+
+    // Returns the Y position at the start of the current tick
+    public double getPreviousY() {
+        return previousY;
+    }
+
+    // Returns the X position between the start and the end of the current tick, alpha from 0 to 1
+    public double getInterpolatedX(double alpha) {
+        return previousX + (positionX - previousX) * alpha;
+    }
+
+    // Returns the Y position between the start and the end of the current tick, alpha from 0 to 1
+    public double getInterpolatedY(double alpha) {
+        return previousY + (positionY - previousY) * alpha;
+    }
+
+    // Returns the X position of the body
+    public double getPositionX() {
+        return positionX;
+    }
+
+    // Returns the Y position of the body
+    public double getPositionY() {
+        return positionY;
+    }
+
+    // Sets the velocity of the body
+    public void setVelocity(double velocityX, double velocityY) {
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+    }
+
+    // Adds to the current velocity of the body
+    public void addVelocity(double x, double y) {
+        this.velocityX += x;
+        this.velocityY += y;
+    }
+
+    // Returns the X velocity of the body
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    // Returns the Y velocity of the body
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    // Returns the width of the body
+    public double getWidth() {
+        return width;
+    }
+
+    // Returns the height of the body
+    public double getHeight() {
+        return height;
+    }
+
+    // Returns the right edge of the body
+    public double getMaxX() {
+        return positionX + width;
+    }
+
+    // Returns the bottom edge of the body
+    public double getMaxY() {
+        return positionY + height;
+    }
+
+    // Checks if this body overlaps another body (same rules as Rectangle2D.intersects)
+    public boolean intersects(Body other) {
+        return intersects(other.positionX, other.positionY, other.width, other.height);
+    }
+
+    /*
+      Checks if this body overlaps the box at the given position and size, without creating any object.
+      Boxes that only touch at an edge do not overlap, the same as Rectangle2D.intersects.
+    */
+    public boolean intersects(double x, double y, double w, double h) {
+        return x < positionX + width && x + w > positionX
+                && y < positionY + height && y + h > positionY;
+    }
+
+    /*
+      Finds when this body first overlapped another body while both moved during the last tick,
+      from their previous to their current positions. Fast bodies cannot pass through each other
+      between two ticks without being noticed.
+      Return the time of first overlap from 0 (start of the tick) to 1 (end of the tick), or -1 if they never overlapped
+    */
+    public double sweepTime(Body other) {
+        // Movement of this body as seen from the other body
+        double dx = (positionX - previousX) - (other.positionX - other.previousX);
+        double dy = (positionY - previousY) - (other.positionY - other.previousY);
+
+        double enter = Math.max(
+                axisEnter(previousX, width, other.previousX, other.width, dx),
+                axisEnter(previousY, height, other.previousY, other.height, dy));
+        double exit = Math.min(
+                axisExit(previousX, width, other.previousX, other.width, dx),
+                axisExit(previousY, height, other.previousY, other.height, dy));
+        if (enter >= exit || enter >= 1 || exit <= 0) {
+            return -1;
+        }
+        return Math.max(enter, 0);
+    }
+
+    // Returns when a moving interval starts to overlap a fixed interval, -infinity if it always does
+    private static double axisEnter(double start, double size, double otherStart, double otherSize, double move) {
+        if (move == 0) {
+            boolean overlaps = start < otherStart + otherSize && start + size > otherStart;
+            return overlaps ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        return Math.min((otherStart - start - size) / move, (otherStart + otherSize - start) / move);
+    }
+
+    // Returns when a moving interval stops overlapping a fixed interval, +infinity if it never does
+    private static double axisExit(double start, double size, double otherStart, double otherSize, double move) {
+        if (move == 0) {
+            boolean overlaps = start < otherStart + otherSize && start + size > otherStart;
+            return overlaps ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        return Math.max((otherStart - start - size) / move, (otherStart + otherSize - start) / move);
+    }
+
+    // Moves the body without forgetting its previous position, so the move is still drawn smoothly
+    public void moveTo(double positionX, double positionY) {
+        this.positionX = positionX;
+        this.positionY = positionY;
+    }
+
+    // Updates the position of the body based on its velocity and the given time
+    public void update(double time) {
+        positionX += velocityX * time;
+        positionY += velocityY * time;
+    }
+}
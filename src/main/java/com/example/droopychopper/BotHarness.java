@@ -0,0 +1,302 @@
+package com.example.droopychopper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+  The BotHarness class plays many games with an autopilot on headless GameWorlds, to see how hard a
+  set of GameParams is. The runs are split over a fork-join pool; every leaf task steps its own world
+  and counts into its own Stats, so threads share nothing until the counts are merged.
+  Run i of a batch always uses the same seed, however the runs are split, so a batch gives the same
+  counts on any number of cores. The worlds collide with boxes only, without the image masks.
+*/
+public class BotHarness {
+    // Runs played one after another by a leaf task
+    private static final int RUNS_PER_TASK = 64;
+    // Default longest game in seconds; a run still alive then counts as survived
+    public static final int DEFAULT_MAX_SECONDS = 120;
+
+    /*
+      Decides every tick whether the autopilot flaps.
+      Random - the generator of the run, for autopilots that make mistakes
+    */
+    public interface Policy {
+        boolean shouldFlap(GameWorld world, SplittableRandom random);
+    }
+
+    /*
+      Returns an autopilot that flaps when the chopper falls below the bottom of the next gap minus a margin,
+      with the margin changed by up to the given jitter each tick, like a player reacting late or early.
+      Margin, Jitter - in pixels
+    */
+    public static Policy gapFollower(double margin, double jitter) {
+        return (world, random) -> {
+            Body chopper = world.getChopper();
+            if (chopper.getVelocityY() <= 0) {
+                return false;
+            }
+            PipePool pipes = world.getPipes();
+            int next = pipes.firstEndingAfter(chopper.getPositionX());
+            double gapBottom = next < pipes.size()
+                    ? pipes.get(next).getUpPipe().getPipe().getPositionY()
+                    : GameWorld.FLOOR_Y;
+            double offset = jitter == 0 ? 0 : random.nextDouble(-jitter, jitter);
+            return chopper.getMaxY() > gapBottom - margin + offset;
+        };
+    }
+
+    /*
+      The outcome of many runs: how many survived each second and how many reached each score.
+      Counts are added per run and merged per task, so one Stats is only ever used by one thread.
+    */
+    public static class Stats {
+        private final GameParams params;
+        private final int maxSeconds;
+        // Runs that died during each second, the last slot holding the runs alive at the end
+        private final long[] deaths;
+        // Runs that ended with each score
+        private long[] scores = new long[64];
+        private long runs, ticks;
+
+        private Stats(GameParams params, int maxSeconds) {
+            this.params = params;
+            this.maxSeconds = maxSeconds;
+            deaths = new long[maxSeconds + 1];
+        }
+
+        // Counts one run
+        private void add(int score, long runTicks, boolean died) {
+            runs++;
+            ticks += runTicks;
+            deaths[died ? (int) Math.min(runTicks * GameWorld.TICK_SECONDS, maxSeconds - 1) : maxSeconds]++;
+            if (score >= scores.length) {
+                scores = Arrays.copyOf(scores, Math.max(score + 1, scores.length * 2));
+            }
+            scores[score]++;
+        }
+
+        // Adds the counts of another Stats of the same batch
+        private Stats merge(Stats other) {
+            runs += other.runs;
+            ticks += other.ticks;
+            for (int i = 0; i < deaths.length; i++) {
+                deaths[i] += other.deaths[i];
+            }
+            if (other.scores.length > scores.length) {
+                scores = Arrays.copyOf(scores, other.scores.length);
+            }
+            for (int i = 0; i < other.scores.length; i++) {
+                scores[i] += other.scores[i];
+            }
+            return this;
+        }
+
+        // Returns the values the runs were played with
+        public GameParams getParams() {
+            return params;
+        }
+
+        // Returns the number of runs
+        public long getRuns() {
+            return runs;
+        }
+
+        // Returns the number of ticks simulated by all runs
+        public long getTicks() {
+            return ticks;
+        }
+
+        // Returns the fraction of runs still alive after the given number of seconds
+        public double getSurvival(int seconds) {
+            long dead = 0;
+            for (int i = 0; i < Math.min(seconds, maxSeconds); i++) {
+                dead += deaths[i];
+            }
+            return runs == 0 ? 0 : 1 - dead / (double) runs;
+        }
+
+        // Returns the average score
+        public double getAverageScore() {
+            long total = 0;
+            for (int i = 0; i < scores.length; i++) {
+                total += i * scores[i];
+            }
+            return runs == 0 ? 0 : total / (double) runs;
+        }
+
+        // Returns the lowest score reached by at least the given percentage of runs counted from the bottom
+        public int getScorePercentile(double percentile) {
+            long rank = (long) Math.ceil(percentile / 100 * runs);
+            long seen = 0;
+            for (int i = 0; i < scores.length; i++) {
+                seen += scores[i];
+                if (seen >= rank && seen > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        // Returns the highest score
+        public int getHighScore() {
+            for (int i = scores.length - 1; i >= 0; i--) {
+                if (scores[i] > 0) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final Policy policy;
+    private final int maxSeconds;
+
+    /*
+      Creates a harness.
+      Pool - the pool the runs are split over
+      Policy - the autopilot playing every run
+      MaxSeconds - the longest game; a run still alive then counts as survived
+    */
+    public BotHarness(ForkJoinPool pool, Policy policy, int maxSeconds) {
+        this.pool = pool;
+        this.policy = policy;
+        this.maxSeconds = maxSeconds;
+    }
+
+    /*
+      Plays a batch of runs with the given values.
+      BaseSeed - decides the seeds of all runs of the batch
+    */
+    public Stats run(GameParams params, int runs, long baseSeed) {
+        return pool.invoke(new Batch(policy, maxSeconds, params, baseSeed, 0, runs));
+    }
+
+    /*
+      Returns the seed of run i of a batch, the same however the batch is split.
+      The base seed is mixed before the run is added, so the runs of neighbouring base seeds do not
+      share seeds: base seed 1 run 1 and base seed 2 run 0 are different games.
+    */
+    public static long runSeed(long baseSeed, long run) {
+        long stream = new SplittableRandom(baseSeed).nextLong();
+        return new SplittableRandom(stream + run).nextLong();
+    }
+
+    // A range of runs of a batch, split in halves until it is small enough to play on one thread
+    private static class Batch extends RecursiveTask<Stats> {
+        // Tasks are never serialized, but ForkJoinTask is Serializable
+        private static final long serialVersionUID = 1L;
+
+        private final Policy policy;
+        private final int maxSeconds;
+        private final GameParams params;
+        private final long baseSeed;
+        private final int from, to;
+
+        private Batch(Policy policy, int maxSeconds, GameParams params, long baseSeed, int from, int to) {
+            this.policy = policy;
+            this.maxSeconds = maxSeconds;
+            this.params = params;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= RUNS_PER_TASK) {
+                return play();
+            }
+            int middle = (from + to) >>> 1;
+            Batch right = new Batch(policy, maxSeconds, params, baseSeed, middle, to);
+            right.fork();
+            Stats left = new Batch(policy, maxSeconds, params, baseSeed, from, middle).compute();
+            return left.merge(right.join());
+        }
+
+        // Plays the runs of this range on one world, reset for every run
+        private Stats play() {
+            Stats stats = new Stats(params, maxSeconds);
+            long maxTicks = Math.round(maxSeconds / GameWorld.TICK_SECONDS);
+            GameWorld world = null;
+            for (int run = from; run < to; run++) {
+                long seed = runSeed(baseSeed, run);
+                if (world == null) {
+                    world = new GameWorld(GameWorld.TICK_SECONDS, seed, params);
+                } else {
+                    world.reset(seed);
+                }
+                SplittableRandom random = new SplittableRandom(seed).split();
+                world.onUserInput(); // Start the game
+                while (!world.isGameOver() && world.getTickCount() < maxTicks) {
+                    if (policy.shouldFlap(world, random)) {
+                        world.onUserInput();
+                    }
+                    world.tick();
+                }
+                stats.add(world.getTotalScore(), world.getTickCount(), world.isGameOver());
+            }
+            return stats;
+        }
+    }
+
+    /*
+      Plays a grid of GameParams around the game's values and prints the survival and scores of each,
+      then plays the default values on one thread to show how the batch scales with the cores.
+      Args - the runs per set of values, the longest game in seconds and the autopilot's jitter in pixels, each optional
+    */
+    public static void main(String[] args) {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int maxSeconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_SECONDS;
+        double jitter = args.length > 2 ? Double.parseDouble(args[2]) : 20;
+        long baseSeed = 1;
+        Policy policy = gapFollower(20, jitter);
+
+        List<GameParams> grid = new ArrayList<>();
+        for (int pairHeight : new int[]{405, GameWorld.PIPE_PAIR_HEIGHT, 445}) {
+            for (double flap : new double[]{-320, GameWorld.FLAP_VELOCITY, -380}) {
+                for (double scroll : new double[]{GameWorld.SCROLL_VELOCITY, -150}) {
+                    grid.add(new GameParams(pairHeight, flap, GameWorld.FALL_VELOCITY, scroll));
+                }
+            }
+        }
+
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        BotHarness harness = new BotHarness(pool, policy, maxSeconds);
+        System.out.printf("%-40s %8s %6s %4s %4s %4s %5s %6s %6s %6s%n", "values", "runs", "avg", "p50", "p90",
+                "p99", "max", "10s", "30s", maxSeconds + "s");
+        long start = System.nanoTime();
+        long ticks = 0;
+        for (GameParams params : grid) {
+            Stats stats = harness.run(params, runs, baseSeed);
+            ticks += stats.getTicks();
+            System.out.printf("%-40s %8d %6.2f %4d %4d %4d %5d %6.3f %6.3f %6.3f%n", params, stats.getRuns(),
+                    stats.getAverageScore(), stats.getScorePercentile(50), stats.getScorePercentile(90),
+                    stats.getScorePercentile(99), stats.getHighScore(), stats.getSurvival(10), stats.getSurvival(30),
+                    stats.getSurvival(maxSeconds));
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d runs, %.0f million ticks in %.2f s on %d threads (%.0f million ticks/s)%n",
+                (long) runs * grid.size(), ticks / 1e6, seconds, pool.getParallelism(), ticks / 1e6 / seconds);
+
+        // The same batch on one thread, for the speedup of the pool
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            BotHarness one = new BotHarness(single, policy, maxSeconds);
+            long parallelStart = System.nanoTime();
+            harness.run(GameParams.DEFAULT, runs, baseSeed);
+            long parallelNanos = System.nanoTime() - parallelStart;
+            long singleStart = System.nanoTime();
+            one.run(GameParams.DEFAULT, runs, baseSeed);
+            long singleNanos = System.nanoTime() - singleStart;
+            System.out.printf("Default values: %.2f s on 1 thread, %.2f s on %d threads, %.1f times faster%n",
+                    singleNanos / 1e9, parallelNanos / 1e9, pool.getParallelism(), singleNanos / (double) parallelNanos);
+        } finally {
+            single.shutdown();
+        }
+    }
+}
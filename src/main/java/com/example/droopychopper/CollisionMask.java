@@ -0,0 +1,105 @@
+package com.example.droopychopper;
+
+/*
+  The CollisionMask class marks the solid (non-transparent) pixels of an image, packed 64 pixels
+  to a long for every row. It is built once per asset, so testing two sprites pixel by pixel only
+  takes a few AND operations per overlapping row instead of reading pixels every frame.
+  It has no JavaFX types; ImageCache builds masks from decoded images.
+*/
+public class CollisionMask {
+    // Pixels with at least this alpha value (0 to 255) are solid
+    public static final int ALPHA_THRESHOLD = 128;
+
+    // Size of the masked image in pixels
+    private final int width;
+    private final int height;
+    // Number of longs holding one row
+    private final int wordsPerRow;
+    // The solid pixels, row by row; bit i of a word is the pixel i columns right of the word's first pixel
+    private final long[] bits;
+
+    // Creates an empty mask of the given size
+    public CollisionMask(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.bits = new long[wordsPerRow * height];
+    }
+
+    /*
+      Builds a mask from the pixels of an image.
+      Argb - the pixels in ARGB format, row by row
+      Width, Height - the size of the image
+    */
+    public static CollisionMask fromArgb(int[] argb, int width, int height) {
+        CollisionMask mask = new CollisionMask(width, height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if ((argb[y * width + x] >>> 24) >= ALPHA_THRESHOLD) {
+                    mask.set(x, y);
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Marks the pixel at the given position as solid
+    public void set(int x, int y) {
+        bits[y * wordsPerRow + (x >>> 6)] |= 1L << (x & 63);
+    }
+
+    // Returns true if the pixel at the given position is solid, false if it is transparent or outside the mask
+    public boolean isSet(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return false;
+        }
+        return (bits[y * wordsPerRow + (x >>> 6)] & (1L << (x & 63))) != 0;
+    }
+
+    /*
+      Returns 64 pixels of a row starting at the given column, bit 0 being that column.
+      Columns outside the mask are transparent, so the column may be negative or past the right edge.
+    */
+    public long bitsAt(int row, int column) {
+        if (column >= width || column <= -64) {
+            return 0;
+        }
+        int start = row * wordsPerRow;
+        if (column < 0) {
+            return bits[start] << -column;
+        }
+        int word = column >>> 6;
+        int shift = column & 63;
+        long result = bits[start + word] >>> shift;
+        if (shift != 0 && word + 1 < wordsPerRow) {
+            result |= bits[start + word + 1] << (64 - shift);
+        }
+        return result;
+    }
+
+    /*
+      Checks if a row of this mask and a row of another mask share a solid pixel.
+      Row, OtherRow - the rows to compare in each mask
+      Offset - how many pixels the other mask's left edge lies right of this mask's left edge
+    */
+    public boolean rowOverlaps(int row, CollisionMask other, int otherRow, int offset) {
+        int from = Math.max(0, offset);
+        int to = Math.min(width, offset + other.width);
+        for (int column = from; column < to; column += 64) {
+            if ((bitsAt(row, column) & other.bitsAt(otherRow, column - offset)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns the width of the mask in pixels
+    public int getWidth() {
+        return width;
+    }
+
+    // Returns the height of the mask in pixels
+    public int getHeight() {
+        return height;
+    }
+}
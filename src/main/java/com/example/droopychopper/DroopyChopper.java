@@ -9,7 +9,6 @@ import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.effect.DropShadow;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.paint.Color;
@@ -21,47 +20,85 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 import javafx.util.Duration;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Random;
+import java.util.SplittableRandom;
 
-public class DroopyChopper extends Application {
+/*
+  The DroopyChopper class draws the GameWorld and handles the window, sounds and UI.
+  All game logic lives in GameWorld; this class reacts to its events through GameWorld.Listener.
+*/
+public class DroopyChopper extends Application implements GameWorld.Listener {
     // Constants for application dimensions
-    private int APP_HEIGHT = 700;
-    private int APP_WIDTH = 400;
+    private int APP_HEIGHT = GameWorld.HEIGHT;
+    private int APP_WIDTH = GameWorld.WIDTH;
 
-    // Variables to track the score and game state
-    private int TOTAL_SCORE = 0;
-    private long spaceClickA;
-    private double motionTime, elapsedTime;
-    private boolean CLICKED, GAME_START, HIT_PIPE, GAME_OVER, MUSIC_MUTED = false;
+    // Variables to track the game state
+    private boolean MUSIC_MUTED = false;
+    // True from the game over event until a new game starts, as seen by the UI thread
+    private boolean gameEnded;
 
-    // Used to manage the start time of the game
-    private LongValue startNanoTime;
+    // The game logic: chopper, pipes, floor, score and collisions
+    private GameWorld world;
 
-    // Sprites for game elements
-    private Sprite firstFloor, secondFloor, chopperSprite;
+    // Steps the world on its own thread and hands over a snapshot after every tick
+    private SimulationThread simulation;
 
-    // Instance of the Chopper class (representing the player character)
+    // Generates the pipe heights ahead of the game on a background thread
+    private final GapLookahead gapLookahead = new GapLookahead();
+
+    // Sprite used to draw both floor bodies
+    private Sprite floorSprite;
+
+    // Draws the pipes at any height from one texture per orientation
+    private PipeRenderer pipeRenderer;
+
+    // Instance of the Chopper class (holding the sprites of the player character)
     private Chopper chopper;
 
     // Label to display the score
     private Text scoreLabel;
 
+    // Label shown while a recorded game is replayed
+    private Text replayLabel;
+
+    // Seed and inputs of the last game played, replayed with R once it is over
+    private long lastSeed;
+    private InputRecording lastInputs;
+    // Inputs of the game being replayed, null while the player plays
+    private InputRecording replayInputs;
+
+    // Records the time spent in each part of every frame
+    private final FrameProfiler profiler = new FrameProfiler();
+    // Records the time spent in every tick of the simulation thread and the interval between ticks
+    private final FrameProfiler tickProfiler = new FrameProfiler(FrameProfiler.DEFAULT_CAPACITY, GameWorld.TICK_SECONDS);
+    // Overlay showing the frame times, toggled with F3
+    private Text performanceLabel;
+    // Number of inputs accepted by the world in the last snapshot drawn, to time the first frame showing a new one
+    private long shownInputs;
+    // Frames drawn since the overlay was last updated
+    private int framesSinceOverlayUpdate;
+    // Number of frames between two updates of the overlay
+    private static final int OVERLAY_UPDATE_FRAMES = 30;
+    // File the frame samples are written to when the game closes
+    private static final String FRAME_SAMPLES_FILE = "frame-samples.csv";
+    // File the tick samples are written to when the game closes
+    private static final String TICK_SAMPLES_FILE = "tick-samples.csv";
+
+    // Appends the scores to the log file without blocking the game
+    private final ScoreWriter scoreWriter = new ScoreWriter(ScoreLedger.getShared(), Path.of(ScoreIndex.LOG_FILE),
+            ScoreWriter.DEFAULT_FLUSH_INTERVAL_MILLIS);
+
+    // System property holding the seed of the first game in hexadecimal, to play a recorded game again
+    private static final String SEED_PROPERTY = "droopychopper.seed";
+
     // Graphics context for rendering
     private GraphicsContext gc, chopperGC;
 
     // Timer for game animation
     private AnimationTimer timer;
 
-    // List to hold pipe objects in the game
-    private ArrayList<Pipe> pipes;
-
     // Sound effects for various actions in the game
     private Sound coin, hit, wing, swoosh, die, credit, gunOne, gunTwo, rain;
 
@@ -89,6 +126,7 @@ public class DroopyChopper extends Application {
         primaryStage.setScene(main);
         primaryStage.show();
 
+        simulation.start(); // Start stepping the world on its own thread
         startGame();
     }
 
@@ -97,40 +135,93 @@ public class DroopyChopper extends Application {
     */
     private void setKeyFunctions(Scene scene) {
         scene.setOnKeyPressed(e -> {
+            // Time of the key press, so the simulation gives it to the tick due at that time
+            long pressed = System.nanoTime();
             // Check if the SPACE key is pressed
             if (e.getCode() == KeyCode.SPACE) {
-                setOnUserInput();
+                setOnUserInput(pressed);
             }
             // Check if the ESCAPE key is pressed
             else if (e.getCode() == KeyCode.ESCAPE) {
                 Platform.exit(); // Exit the application
             }
+            // Check if the F3 key is pressed
+            else if (e.getCode() == KeyCode.F3) {
+                performanceLabel.setVisible(!performanceLabel.isVisible()); // Show or hide the frame time overlay
+            }
+            // Check if the R key is pressed after a game
+            else if (e.getCode() == KeyCode.R && gameEnded && lastInputs != null) {
+                startReplay(); // Replay the last game
+            }
         });
     }
 
     /*
       Method to handle user input that is spacebar press
+      Pressed - the time of the key press from System.nanoTime()
     */
-    private void setOnUserInput() {
-        // Check if the chopper has not hit a pipe
-        if (!HIT_PIPE) {
-            CLICKED = true; // Mark that the user has clicked using boolean flag
-
-            // Check if the game has not started yet
-            if (!GAME_START) {
-                root.getChildren().remove(startGame); // Remove the start game image from the scene
-                swoosh.playClip(); // Play swoosh sound effect
-                GAME_START = true; // Set the game start boolean flag to true
-            } else {
-                wing.playClip(); // Play wing flapping sound effect
-                spaceClickA = System.currentTimeMillis(); // Record the time of the spacebar click
-                chopperSprite.setVelocity(0, -350); // Set the upward velocity of the chopper
-            }
-        }
-
+    private void setOnUserInput(long pressed) {
         // Check if the game is over
-        if (GAME_OVER) {
+        if (gameEnded) {
             startNewGame(); // Start a new game
+        } else if (replayInputs == null) {
+            // Start the game or make the chopper flap, unless a replay is playing; a dropped input is counted in the overlay
+            simulation.input(pressed);
+        }
+        profiler.add(FrameProfiler.Phase.INPUT, System.nanoTime() - pressed);
+    }
+
+    // Called by the world when the first input starts the game
+    @Override
+    public void onGameStart() {
+        root.getChildren().remove(startGame); // Remove the start game image from the scene
+        swoosh.playClip(); // Play swoosh sound effect
+    }
+
+    // Called by the world when the chopper flaps
+    @Override
+    public void onFlap() {
+        wing.playClip(); // Play wing flapping sound effect
+    }
+
+    // Called by the world when the chopper passes a pair of pipes
+    @Override
+    public void onScore(int totalScore) {
+        updateScoreLabel(totalScore); // Update total score
+        coin.playClip(); // Play coin sound effect
+    }
+
+    // Called by the world when the chopper hits a pipe
+    @Override
+    public void onHitPipe() {
+        root.getChildren().add(gameOver); // Display game over image
+        playHitSound(); // Play hit sound effect
+        showHitEffect(); // Trigger visual effect for collision
+    }
+
+    /*
+      Called by the world when the chopper hits the floor.
+      A world that is over does not change until it is reset, which only this thread asks for,
+      so the seed and inputs of the game can be read from it here.
+    */
+    @Override
+    public void onGameOver(int totalScore) {
+        gameEnded = true;
+        if (!root.getChildren().contains(gameOver)) {
+            root.getChildren().add(gameOver); // Display game over image
+            playHitSound(); // Play hit sound effect
+            showHitEffect(); // Show hit effect
+        }
+        timer.stop(); // Stop the game timer
+        die.playClip(); // Play die sound effect
+        if (replayInputs != null) {
+            replayInputs = null; // The replay is over; its score was saved when the game was played
+            replayLabel.setVisible(false);
+        } else {
+            // Keep the game to replay it, then write current score to file
+            lastSeed = world.getSeed();
+            lastInputs = world.getRecording().copy();
+            writeScoreToFile(totalScore);
         }
     }
 
@@ -149,16 +240,21 @@ public class DroopyChopper extends Application {
         gc = canvas.getGraphicsContext2D();
         chopperGC = chopperCanvas.getGraphicsContext2D();
 
+        world = new GameWorld(GameWorld.TICK_SECONDS, getFirstSeed()); // Initialize the floor, pipes and chopper of the game
         ImageView bg = setBackground(); // Set the background image
-        setFloor(); // Initializes the floor elements
-        pipes = new ArrayList<>(); // Initializes the list of pipes
-        setPipes(); // Initialize and position the pipes
-        setChopper(); // Initialize and position the chopper sprite
+        world.setGapSource(gapLookahead); // Take the pipe heights generated ahead of time
+        setFloor(); // Initializes the floor sprite
+        setPipes(); // Initializes the pipe images
+        setChopper(); // Initialize the chopper sprites
+        // Let the world test pipe hits against the solid pixels of the images
+        world.setCollisionMasks(chopper.getFrameMasks(), pipeRenderer.getUpMask(), pipeRenderer.getDownMask());
+        // From here on the world belongs to the simulation thread; its events come back on this thread
+        simulation = new SimulationThread(world, this, Platform::runLater, tickProfiler);
         setLabels(); // Set the score and other labels
         setSounds(); // Initialize the sound effects
 
         // Create and position the mute button image with the unmute button file path
-        muteButtonImage = new ImageView(new Image(getClass().getResource("/images/unmute.png").toExternalForm()));
+        muteButtonImage = new ImageView(ImageCache.getShared().get("/images/unmute.png"));
         muteButtonImage.setFitWidth(30);
         muteButtonImage.setFitHeight(30);
         muteButtonImage.setLayoutX(APP_WIDTH - 40);
@@ -167,56 +263,49 @@ public class DroopyChopper extends Application {
         muteButtonImage.setOnMouseClicked(e -> toggleMuteMusic());
 
         // Add all the game elements to the root group and return the root group as the content of the scene
-        root.getChildren().addAll(bg, canvas, chopperCanvas, scoreLabel, startGame, creditsIcon, muteButtonImage);
+        root.getChildren().addAll(bg, canvas, chopperCanvas, scoreLabel, performanceLabel, replayLabel, startGame,
+                creditsIcon, muteButtonImage);
         return root;
     }
 
+    /*
+       Returns the seed given with the seed system property, or a new random seed
+    */
+    private static long getFirstSeed() {
+        String seed = System.getProperty(SEED_PROPERTY);
+        if (seed != null) {
+            try {
+                return Long.parseUnsignedLong(seed.trim(), 16);
+            } catch (NumberFormatException e) {
+                System.err.println("Not a seed: " + seed);
+            }
+        }
+        return GameWorld.newSeed();
+    }
+
     /*
        Method to toggle mute/unmute state of the music and sound effects
     */
     private void toggleMuteMusic() {
         // Toggle the MUSIC_MUTED boolean value
         MUSIC_MUTED = !MUSIC_MUTED;
-        // Check if the music is muted
-        if (MUSIC_MUTED) {
-            // Change the mute button image to show the "mute" icon
-            muteButtonImage.setImage(new Image(getClass().getResource("/images/mute.png").toExternalForm()));
-            // Mute all sound effects
-            coin.mute();
-            hit.mute();
-            wing.mute();
-            swoosh.mute();
-            die.mute();
-            credit.mute();
-            gunOne.mute();
-            gunTwo.mute();
-        } else {
-            // Change the mute button image to show the "unmute" icon
-            muteButtonImage.setImage(new Image(getClass().getResource("/images/unmute.png").toExternalForm()));
-            // Unmute all sound effects
-            coin.unmute();
-            hit.unmute();
-            wing.unmute();
-            swoosh.unmute();
-            die.unmute();
-            credit.unmute();
-            gunOne.unmute();
-            gunTwo.unmute();
-        }
+        // Mute or unmute all sound effects at once
+        SoundManager.getShared().setMuted(MUSIC_MUTED);
+        // Change the mute button image to show the "mute" or "unmute" icon
+        muteButtonImage.setImage(ImageCache.getShared().get(MUSIC_MUTED ? "/images/mute.png" : "/images/unmute.png"));
     }
 
     /*
       Method to set the background image
     */
     private ImageView setBackground() {
-        Random random = new Random();
-        // Generate a random number (0 or 1)
-        int bg = random.nextInt(2);
+        // Generate a random number (0 or 1) from the seed of the first game, apart from its pipe heights
+        int bg = new SplittableRandom(world.getSeed()).split().nextInt(2);
         // Choose the file path based on the random number
         String filePath = bg > 0 ? "/images/background.gif" : "/images/background_night.png";
 
         // Create an ImageView with the chosen background image
-        ImageView imageView = new ImageView(new Image(getClass().getResource(filePath).toExternalForm()));
+        ImageView imageView = new ImageView(ImageCache.getShared().get(filePath));
         imageView.setFitWidth(APP_WIDTH);
         imageView.setFitHeight(APP_HEIGHT);
         return imageView; // Return the imageView
@@ -234,15 +323,32 @@ public class DroopyChopper extends Application {
         scoreLabel.setLayoutX(20); // X-axis position within the scene
         scoreLabel.setLayoutY(40); // Y-axis position within the scene
 
+        // Initialization of the frame time overlay, hidden until F3 is pressed
+        performanceLabel = new Text();
+        performanceLabel.setFont(Font.font("Courier", FontWeight.BOLD, 11));
+        performanceLabel.setFill(Color.WHITE); // Fill color of the text
+        performanceLabel.setLayoutX(110); // X-axis position next to the score label
+        performanceLabel.setLayoutY(15); // Y-axis position within the scene
+        performanceLabel.setVisible(false);
+
+        // Initialization of the replay label, hidden until a game is replayed
+        replayLabel = new Text("REPLAY");
+        replayLabel.setFont(Font.font("Courier", FontWeight.EXTRA_BOLD, 24));
+        replayLabel.setStroke(Color.BLACK); // Border color of the text
+        replayLabel.setFill(Color.WHITE); // Fill color of the text
+        replayLabel.setLayoutX(150); // X-axis position within the scene
+        replayLabel.setLayoutY(180); // Y-axis position below the game over image
+        replayLabel.setVisible(false);
+
         // Initialization of game over image
-        gameOver = new ImageView(new Image(getClass().getResource("/images/game_over.png").toExternalForm()));
+        gameOver = new ImageView(ImageCache.getShared().get("/images/game_over.png"));
         gameOver.setFitWidth(178); // Set width of the game over image
         gameOver.setFitHeight(50); // Set height of the game over image
         gameOver.setLayoutX(110); // X-axis position within the scene
         gameOver.setLayoutY(100); // Y-axis position within the scene
 
         // Initialization of ready/start game image
-        startGame = new ImageView(new Image(getClass().getResource("/images/ready.png").toExternalForm()));
+        startGame = new ImageView(ImageCache.getShared().get("/images/ready.png"));
         startGame.setFitWidth(178); // Set width of the start game image
         startGame.setFitHeight(50); // Set height of the start game image
         startGame.setLayoutX(100); // X-axis position within the scene
@@ -250,7 +356,7 @@ public class DroopyChopper extends Application {
 
 
         // Initialization of credits icon
-        creditsIcon = new ImageView(new Image(getClass().getResource("/images/credit.png").toExternalForm()));
+        creditsIcon = new ImageView(ImageCache.getShared().get("/images/credit.png"));
         creditsIcon.setFitWidth(30); // Set width of the credits icon
         creditsIcon.setFitHeight(30); // Set height of the credits icon
         creditsIcon.setLayoutX(APP_WIDTH - 40); // X-axis position near the right edge of the window
@@ -457,10 +563,11 @@ public class DroopyChopper extends Application {
        Method for the Sound Effects
     */
     private void setSounds() {
-        // Initialize sound objects with respective sound files
-        coin = new Sound("/sounds/score.mp3");
+        // Initialize sound objects with respective sound files; each file is decoded once
+        // Sounds that can be triggered quickly are limited to a few voices at once
+        coin = new Sound("/sounds/score.mp3", 2);
         hit = new Sound("/sounds/hit.mp3");
-        wing = new Sound("/sounds/wing.mp3");
+        wing = new Sound("/sounds/wing.mp3", 2);
         swoosh = new Sound("/sounds/swoosh.mp3");
         die = new Sound("/sounds/die.mp3");
         credit = new Sound("/sounds/music3.mp3");
@@ -470,39 +577,28 @@ public class DroopyChopper extends Application {
     }
 
     /*
-       Method for rendering the chopper
+       Method for loading the chopper sprites
     */
     private void setChopper() {
-        // Initialize chopper object and its sprite for rendering
+        // Initialize chopper object holding the sprites of the flight animation
         chopper = new Chopper();
-        chopperSprite = chopper.getChopper(); // Get the sprite object of the chopper
-        chopperSprite.render(gc); // Render the chopper sprite on the main graphics context
     }
 
     /*
-       Method for initializing the floor sprites
+       Method for initializing the floor sprite
     */
     private void setFloor() {
-        // Initialize two floor sprites for scrolling effect
-        firstFloor = new Sprite();
-        // Resize and set image for first floor
-        firstFloor.resizeImage("/images/floor.png", 400, 140);
-        // Set initial position for first floor
-        firstFloor.setPositionXY(0, APP_HEIGHT - 100);
-        // Set velocity for horizontal scrolling
-        firstFloor.setVelocity(-.4, 0);
-        // Render first floor on dedicated chopper graphics context
-        firstFloor.render(chopperGC);
-
-        secondFloor = new Sprite();
-        // Resize and set image for second floor
-        secondFloor.resizeImage("/images/floor.png", 400, 140);
-        // Position second floor next to first floor
-        secondFloor.setPositionXY(firstFloor.getWidth(), APP_HEIGHT - 100);
-        // Set velocity for horizontal scrolling
-        secondFloor.setVelocity(-.4, 0);
-        // Render second floor on main graphics context
-        secondFloor.render(gc);
+        // The same sprite draws both floor bodies of the world
+        floorSprite = new Sprite();
+        // Resize and set image for the floor
+        floorSprite.resizeImage("/images/floor.png", GameWorld.FLOOR_WIDTH, GameWorld.FLOOR_HEIGHT);
+    }
+
+    /*
+       Method for loading the pipe textures, drawn at the height of each pipe
+    */
+    private void setPipes() {
+        pipeRenderer = new PipeRenderer();
     }
 
     /*
@@ -511,62 +607,22 @@ public class DroopyChopper extends Application {
     private void startGame() {
         // Stop the die sound if it was playing
         die.stop();
-        // Record the starting time in nanoseconds
-        startNanoTime = new LongValue(System.nanoTime());
 
         timer = new AnimationTimer() {
             public void handle(long now) {
-                // Calculate elapsed time since the last frame in seconds
-                elapsedTime = (now - startNanoTime.value) / 1000000000.0;
-                // Update startNanoTime for the next frame
-                startNanoTime.value = now;
-
-                // Clear both graphics contexts
-                gc.clearRect(0, 0, APP_WIDTH, APP_HEIGHT);
-                chopperGC.clearRect(0, 0, APP_WIDTH, APP_HEIGHT);
-
-                // Move the floor sprites horizontally
-                moveFloor();
-                // Check the time between space hits for user input
-                checkTimeBetweenSpaceHits();
-
-                if (GAME_START) {
-                    // Render pipes on the screen
-                    renderPipes();
-                    // Check and handle scrolling of pipes
-                    checkPipeScroll();
-                    // Update the total score based on game progress
-                    updateTotalScore();
-
-                    // Check if chopper hits a pipe
-                    if (chopperHitPipe()) {
-                        // Display game over image
-                        root.getChildren().add(gameOver);
-                        stopScroll(); // Stop scrolling
-                        playHitSound(); // Play hit sound effect
-                        motionTime += 0.18;
-                        if (motionTime > 0.5) {
-                            // Add a sudden upward motion to chopper sprite when hit
-                            chopperSprite.addVelocity(-200, 400);
-                            chopperSprite.render(gc); // Render chopper sprite
-                            chopperSprite.update(elapsedTime); // Update chopper position
-                            motionTime = 0; // Reset motion time
-                        }
-                    }
-
-                    // Check if chopper hits the floor
-                    if (chopperHitFloor()) {
-                        if (!root.getChildren().contains(gameOver)) {
-                            root.getChildren().add(gameOver); // Display game over image
-                            playHitSound(); // Play hit sound effect
-                            showHitEffect(); // Show hit effect
-                        }
-                        timer.stop(); // Stop the game timer
-                        GAME_OVER = true; // Set game over using boolean flag
-                        die.playClip(); // Play die sound effect
-                        writeScoreToFile(); // Write current score to file
-                    }
+                // The world is stepped on the simulation thread; draw its newest snapshot between its last two ticks
+                long renderStart = System.nanoTime();
+                WorldSnapshot snapshot = simulation.getLatest();
+                render(snapshot, simulation.getAlpha(snapshot, renderStart));
+                long renderEnd = System.nanoTime();
+                profiler.add(FrameProfiler.Phase.RENDER, renderEnd - renderStart);
+                if (snapshot.getInputCount() != shownInputs) {
+                    // First frame drawing the effect of a new input: time it from the key press
+                    shownInputs = snapshot.getInputCount();
+                    profiler.addInputLatency(renderEnd - snapshot.getLastInputNanos());
                 }
+                profiler.endFrame(now);
+                updatePerformanceLabel(snapshot);
             }
         };
         // Start the animation timer
@@ -577,14 +633,32 @@ public class DroopyChopper extends Application {
        Method for the restarting the game
     */
     private void startNewGame() {
+        replayInputs = null;
+        replayLabel.setVisible(false);
+        restartGame(GameWorld.newSeed());
+    }
+
+    /*
+       Method for replaying the last game at normal speed from its seed and recorded inputs
+    */
+    private void startReplay() {
+        replayInputs = lastInputs;
+        replayLabel.setVisible(true);
+        restartGame(lastSeed);
+    }
+
+    /*
+       Puts the game back at its start with the given seed and starts the game timer
+    */
+    private void restartGame(long seed) {
         // Remove game over image from root
         root.getChildren().remove(gameOver);
         // Add start game image to root
         root.getChildren().add(startGame);
-        pipes.clear(); // Clear existing pipes
-        setFloor(); // Reset floor sprites
-        setPipes(); // Reset pipes
-        setChopper(); // Reset chopper
+        gameEnded = false;
+        simulation.restart(seed, replayInputs); // Reset floor, pipes, chopper and score before the next tick
+        setFloor(); // Reset floor sprite
+        setChopper(); // Reset chopper sprites
         resetVariables(); // Reset game variables
         startGame(); // Start the game again
     }
@@ -595,46 +669,34 @@ public class DroopyChopper extends Application {
     private void resetVariables() {
         // Reset score label
         updateScoreLabel(0);
-        // Reset total score
-        TOTAL_SCORE = 0;
-        HIT_PIPE = false; // Reset pipe hit using boolean flag
-        CLICKED = false; // Reset click  using boolean flag
-        GAME_OVER = false; // Reset game over using boolean flag
-        GAME_START = false; // Reset game start using boolean flag
-    }
-
-    /*
-       Check the time elapsed between space key hits for chopper movement
-    */
-    private void checkTimeBetweenSpaceHits() {
-        // Calculate time difference
-        long difference = (System.currentTimeMillis() - spaceClickA) / 300;
-
-        if (difference >= .001 && CLICKED) {
-            // Reset click using boolean flag
-            CLICKED = false;
-            chopperSprite.addVelocity(0, 800); // Add upward velocity to chopper
-            chopperSprite.render(chopperGC); // Render chopper on dedicated graphics context
-            chopperSprite.update(elapsedTime); // Update chopper position
-        } else {
-            animateChopper(); // Animate chopper movement
-        }
     }
 
     /*
-        Update the total score based on chopper passing through pipes
+       Update the frame time overlay a few times per second while it is shown
     */
-    private void updateTotalScore() {
-        // Check if hit the pipe
-        if (!HIT_PIPE) {
-            for (Pipe pipe : pipes) {
-                if (pipe.getPipe().getPositionX() == chopperSprite.getPositionX()) {
-                    updateScoreLabel(++TOTAL_SCORE); // Update total score
-                    coin.playClip(); // Play coin sound effect
-                    break;
-                }
-            }
+    private void updatePerformanceLabel(WorldSnapshot snapshot) {
+        if (!performanceLabel.isVisible() || ++framesSinceOverlayUpdate < OVERLAY_UPDATE_FRAMES) {
+            return;
         }
+        framesSinceOverlayUpdate = 0;
+        performanceLabel.setText(String.format(
+                "frame p50 %.1f p95 %.1f p99 %.1f ms%ndropped %d over budget %d%n"
+                        + "input %.2f render %.2f ms input latency p50 %.1f p99 %.1f ms inputs dropped %d%n"
+                        + "tick p50 %.2f p99 %.2f ms late %d sim %.3f collide %.3f ms%n"
+                        + "score writes %d rejected %d failed %d queue %d latency %.1f ms%nseed %x gaps ready %d stalls %d",
+                profiler.getFrameTimePercentile(50), profiler.getFrameTimePercentile(95),
+                profiler.getFrameTimePercentile(99), profiler.getDroppedFrames(), profiler.getOverBudgetFrames(),
+                profiler.getAveragePhaseTime(FrameProfiler.Phase.INPUT),
+                profiler.getAveragePhaseTime(FrameProfiler.Phase.RENDER),
+                profiler.getInputLatencyPercentile(50), profiler.getInputLatencyPercentile(99),
+                simulation.getDroppedInputs(),
+                tickProfiler.getFrameTimePercentile(50), tickProfiler.getFrameTimePercentile(99),
+                tickProfiler.getDroppedFrames(),
+                tickProfiler.getAveragePhaseTime(FrameProfiler.Phase.SIMULATE),
+                tickProfiler.getAveragePhaseTime(FrameProfiler.Phase.COLLIDE),
+                scoreWriter.getWrittenLines(), scoreWriter.getRejectedLines(), scoreWriter.getFailedWrites(),
+                scoreWriter.getQueueDepth(), scoreWriter.getLastLatency(),
+                snapshot.getSeed(), gapLookahead.getReadyPairs(), gapLookahead.getStalls()));
     }
 
     /*
@@ -645,69 +707,31 @@ public class DroopyChopper extends Application {
     }
 
     /*
-       Method to move the floor sprites horizontally across the screen.
-       Handles rendering and updating positions of firstFloor and secondFloor sprites.
+       Method to draw a snapshot of the world.
+       Floor and pipes go on the main graphics context, the chopper on its dedicated one.
+       Alpha - how far the frame is between the previous and the current tick, from 0 to 1
     */
-    private void moveFloor() {
-        // Render the floor sprites on the graphics context
-        firstFloor.render(gc);
-        secondFloor.render(gc);
-        // Update their positions based on velocity
-        firstFloor.update(5);
-        secondFloor.update(5);
-
-        // Check if either floor sprite has moved off-screen, and reposition them accordingly
-        if (firstFloor.getPositionX() <= -APP_WIDTH) {
-            firstFloor.setPositionXY(secondFloor.getPositionX() + secondFloor.getWidth(),
-                    APP_HEIGHT - 100);
-        } else if (secondFloor.getPositionX() <= -APP_WIDTH) {
-            secondFloor.setPositionXY(firstFloor.getPositionX() + firstFloor.getWidth(),
-                    APP_HEIGHT - 100);
-        }
-    }
+    private void render(WorldSnapshot snapshot, double alpha) {
+        // Clear both graphics contexts
+        gc.clearRect(0, 0, APP_WIDTH, APP_HEIGHT);
+        chopperGC.clearRect(0, 0, APP_WIDTH, APP_HEIGHT);
 
-    /*
-      Method to animate the chopper sprite based on user input or game logic.
-      Handles rendering and updating the chopperSprite, and switching frames for animation.
-    */
-    private void animateChopper() {
-        // Render the chopper sprite on its dedicated graphics context
-        chopperSprite.render(chopperGC);
-        // Update the chopper's position and velocity over time
-        chopperSprite.update(elapsedTime);
-
-        // Control the animation frame switching based on user input or game state
-        motionTime += 0.18;
-        if (motionTime > 0.5 && CLICKED) {
-            // Store the current chopperSprite to preserve its state during animation
-            Sprite temp = chopperSprite;
-            // Obtain the next animated frame of the chopper and update its state
-            chopperSprite = chopper.animate();
-
-            // Preserve the position and velocity of the chopper during animation switch
-            chopperSprite.setPositionXY(temp.getPositionX(), temp.getPositionY());
-            chopperSprite.setVelocity(temp.getVelocityX(), temp.getVelocityY());
-
-            // Reset motionTime for next animation cycle
-            motionTime = 0;
+        // Draw both floor bodies with the floor sprite
+        renderFloor(snapshot, WorldSnapshot.FIRST_FLOOR, alpha);
+        renderFloor(snapshot, WorldSnapshot.SECOND_FLOOR, alpha);
+
+        if (snapshot.isGameStarted()) {
+            renderPipes(snapshot, alpha); // Render pipes on the screen
         }
-    }
 
+        // Draw the current frame of the chopper animation at the chopper's position
+        chopper.getFrame(snapshot.getChopperFrame()).render(chopperGC,
+                snapshot.getX(WorldSnapshot.CHOPPER, alpha), snapshot.getY(WorldSnapshot.CHOPPER, alpha));
+    }
 
-    /*
-       Method to check if the chopper sprite intersects with any of the pipes.
-       Returns true if there is a collision (chopperHitPipe), otherwise false.
-    */
-    private boolean chopperHitPipe() {
-        for (Pipe pipe : pipes) {
-            // Check collision between chopperSprite and each pipe's sprite
-            if (!HIT_PIPE && chopperSprite.intersectsSprite(pipe.getPipe())) {
-                HIT_PIPE = true; // Set using boolean flag to indicate chopper has hit a pipe
-                showHitEffect(); // Trigger visual effect for collision
-                return true; // Return true value as there is a collision
-            }
-        }
-        return false; // Return false value if no collision detected
+    // Draws the floor sprite at the position of a floor body
+    private void renderFloor(WorldSnapshot snapshot, int floor, double alpha) {
+        floorSprite.render(gc, snapshot.getX(floor, alpha), snapshot.getY(floor, alpha));
     }
 
     /*
@@ -738,90 +762,13 @@ public class DroopyChopper extends Application {
 
 
     /*
-       Method to check if the chopper sprite has hit the floor or gone off-screen.
-       Returns true if the chopper intersects with either firstFloor, secondFloor, or moves too far left.
-    */
-    private boolean chopperHitFloor() {
-        return chopperSprite.intersectsSprite(firstFloor) ||
-                chopperSprite.intersectsSprite(secondFloor) ||
-                chopperSprite.getPositionX() < 0;
-    }
-
-
-    /*
-       Method to stop the scrolling animation of pipes and floors.
-       Sets velocities of all pipes and floors to zero to freeze their movement.
+      Method to render all pipes currently in the world.
     */
-    private void stopScroll() {
-        // Stop all pipe movements
-        for (Pipe pipe : pipes) {
-            pipe.getPipe().setVelocity(0, 0);
-        }
-        // Stop first and second floor movements
-        firstFloor.setVelocity(0, 0);
-        secondFloor.setVelocity(0, 0);
-    }
-
-
-    /*
-        Method to check and manage scrolling of pipes.
-        Creates new pipes when necessary based on screen position, and removes pipes that have scrolled off-screen.
-    */
-    private void checkPipeScroll() {
-        if (pipes.size() > 0) {
-            Sprite p = pipes.get(pipes.size() - 1).getPipe();
-
-            // Create new set of pipes when the last pipe reaches a specific position
-            if (p.getPositionX() == APP_WIDTH / 2 - 80) {
-                setPipes();
-            } else if (p.getPositionX() <= -p.getWidth()) {
-                // Remove pipes that have scrolled off-screen
-                pipes.remove(0);
-                pipes.remove(0); // Remove corresponding down pipe
-            }
-        }
-    }
-
-    /*
-        Method to initialize and render a new set of pipes on the screen.
-        Creates pairs of pipes with random heights and velocities, and renders them on the graphics context.
-    */
-    private void setPipes() {
-        int height = getRandomPipeHeight();
-
-        // Create upper and lower pipes
-        Pipe pipe = new Pipe(true, height);
-        Pipe downPipe = new Pipe(false, 425 - height);
-
-        // Set velocities for both pipes
-        pipe.getPipe().setVelocity(-.4, 0);
-        downPipe.getPipe().setVelocity(-.4, 0);
-
-        // Render both pipes on the graphics context and add them to the pipes list
-        pipe.getPipe().render(gc);
-        downPipe.getPipe().render(gc);
-
-        pipes.addAll(Arrays.asList(pipe, downPipe));
-    }
-
-    /*
-      Method to generate a random height for pipes.
-      Returns an integer representing the height of the upper pipe.
-    */
-    private int getRandomPipeHeight() {
-        return (int) (Math.random() * (410 - 25)) + 25; // Random height between 25 and 410
-    }
-
-
-    /*
-      Method to render all pipes currently on the screen.
-      Updates their positions and renders them on the graphics context.
-    */
-    private void renderPipes() {
-        for (Pipe pipe : pipes) {
-            Sprite p = pipe.getPipe();
-            p.render(gc);
-            p.update(5);
+    private void renderPipes(WorldSnapshot snapshot, double alpha) {
+        for (int i = 0; i < snapshot.getPipeCount(); i++) {
+            int body = WorldSnapshot.PIPES + i;
+            pipeRenderer.render(gc, snapshot.isPipeFaceUp(i), snapshot.getX(body, alpha), snapshot.getY(body, alpha),
+                    snapshot.getPipeHeight(i));
         }
     }
 
@@ -829,30 +776,31 @@ public class DroopyChopper extends Application {
     /*
         Created a File/IO for reading the scores
        Method to write the current game score to a log file.
-       Appends the score and timestamp to the end of the specified log file.
+       Queues the score, the seed and inputs of the game and the timestamp to be appended to the score ledger
+       and the log file by the score writer.
+       Score - the final score passed with the game over event
     */
-    private void writeScoreToFile() {
-        String filePath = "logs.txt";
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
-        String logEntry = "Score: " + TOTAL_SCORE + " | Time: " + timestamp + "\n";
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath, true))) {
-            writer.write(logEntry); // Write score entry to file
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+    private void writeScoreToFile(int score) {
+        // The score and the seed of the game are written to the ledger and the log file on the score writer's thread;
+        // a score the busy writer rejects is counted in the overlay
+        scoreWriter.submit(score, world.getSeed(), world.getRecording().encode(), LocalDateTime.now());
     }
 
 
     /*
-        Helper class to hold a mutable long value.
-        Used for tracking time and durations in the game.
+        Called when the application closes: stops the simulation, saves the queued scores and writes the recorded
+        frame and tick samples to files.
     */
-    public class LongValue {
-        public long value;
-
-        public LongValue(long i) {
-            this.value = i;
+    @Override
+    public void stop() {
+        simulation.close();
+        scoreWriter.close();
+        gapLookahead.close();
+        try {
+            profiler.exportCsv(Path.of(FRAME_SAMPLES_FILE));
+            tickProfiler.exportCsv(Path.of(TICK_SAMPLES_FILE));
+        } catch (IOException e) {
+            e.printStackTrace();
         }
     }
 }
@@ -0,0 +1,110 @@
+package com.example.droopychopper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+/*
+  The FairnessAnalyzer class samples many pipe sequences of the game's generator and counts how many
+  of them contain a gap the chopper cannot reach from the previous one, as judged by GapGenerator.
+  A sequence is drawn from a game seed exactly as GameWorld draws it, without simulating the game, so
+  sequences are cheap and sampled in a parallel stream; each one keeps its generator to itself.
+*/
+public class FairnessAnalyzer {
+    // Default number of pairs in one sequence, about seven minutes of play
+    public static final int DEFAULT_PAIRS = 100;
+
+    // The outcome of a sample: how many sequences broke at each pair
+    public record Report(GameParams params, long sequences, long[] firstUnreachable) {
+        // Returns the number of sequences with a gap that cannot be reached
+        public long getUnwinnable() {
+            long total = 0;
+            for (long count : firstUnreachable) {
+                total += count;
+            }
+            return total;
+        }
+
+        // Returns the fraction of sequences with a gap that cannot be reached
+        public double getUnwinnableFraction() {
+            return sequences == 0 ? 0 : getUnwinnable() / (double) sequences;
+        }
+
+        // Returns the fraction of sequences that break within the given number of pairs
+        public double getUnwinnableFraction(int pairs) {
+            long total = 0;
+            for (int i = 0; i < Math.min(pairs, firstUnreachable.length); i++) {
+                total += firstUnreachable[i];
+            }
+            return sequences == 0 ? 0 : total / (double) sequences;
+        }
+    }
+
+    /*
+      Samples sequences of the given values in parallel.
+      Sequences - the number of sequences; sequence i is the game with seed BotHarness.runSeed(baseSeed, i)
+      Pairs - the number of pairs in each sequence
+    */
+    public static Report analyze(GameParams params, long sequences, int pairs, long baseSeed) {
+        long[] firstUnreachable = LongStream.range(0, sequences).parallel()
+                .mapToInt(i -> firstUnreachable(params, BotHarness.runSeed(baseSeed, i), pairs))
+                .collect(() -> new long[pairs], (counts, pair) -> {
+                    if (pair >= 0) {
+                        counts[pair]++;
+                    }
+                }, (counts, other) -> {
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] += other[i];
+                    }
+                });
+        return new Report(params, sequences, firstUnreachable);
+    }
+
+    /*
+      Draws the pairs of the game with the given seed.
+      Return the index of the first pair that cannot be reached, or -1 if all of them can
+    */
+    public static int firstUnreachable(GameParams params, long seed, int pairs) {
+        SplittableRandom random = new SplittableRandom(seed);
+        GapGenerator gaps = new GapGenerator(params);
+        for (int pair = 0; pair < pairs; pair++) {
+            gaps.next(random);
+            if (!gaps.isReachable()) {
+                return pair;
+            }
+        }
+        return -1;
+    }
+
+    /*
+      Samples a grid of values around the game's, with free and with fair gaps, and prints the unwinnable fractions.
+      Args - the sequences per set of values and the pairs per sequence, each optional
+    */
+    public static void main(String[] args) {
+        long sequences = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        int pairs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_PAIRS;
+
+        List<GameParams> grid = new ArrayList<>();
+        // With the game's values any gap can be reached from any other; weaker flaps and faster pipes find the limit
+        for (double flap : new double[]{GameWorld.FLAP_VELOCITY, -250}) {
+            for (double scroll : new double[]{GameWorld.SCROLL_VELOCITY, -360, -480, -600}) {
+                GameParams params = new GameParams(GameWorld.PIPE_PAIR_HEIGHT, flap, GameWorld.FALL_VELOCITY, scroll);
+                grid.add(params);
+                grid.add(params.withFairGaps(true));
+            }
+        }
+
+        System.out.printf("%-46s %12s %10s %10s %10s%n", "values", "sequences", "10 pairs", "30 pairs",
+                pairs + " pairs");
+        long start = System.nanoTime();
+        for (GameParams params : grid) {
+            Report report = analyze(params, sequences, pairs, 1);
+            System.out.printf("%-46s %12d %10.6f %10.6f %10.6f%n", params, report.sequences(),
+                    report.getUnwinnableFraction(10), report.getUnwinnableFraction(30), report.getUnwinnableFraction());
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d sequences of %d pairs in %.2f s (%.0f million pairs/s)%n", sequences * grid.size(), pairs,
+                seconds, sequences * grid.size() * pairs / 1e6 / seconds);
+    }
+}
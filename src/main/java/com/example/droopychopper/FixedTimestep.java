@@ -0,0 +1,52 @@
+package com.example.droopychopper;
+
+/*
+  The FixedTimestep class turns variable frame times into a whole number of fixed simulation ticks.
+  Time left over between ticks is kept for the next frame and exposed as an interpolation factor,
+  so the renderer can draw between the last two ticks and the game speed does not depend on the
+  refresh rate of the monitor.
+*/
+public class FixedTimestep {
+    // Longest frame time that is simulated, so a long hitch does not cause a burst of ticks
+    public static final double MAX_FRAME_TIME = 0.25;
+
+    // Length of one simulation tick in seconds
+    private final double tickSeconds;
+    // Frame time not yet used by a tick
+    private double accumulator;
+
+    // Creates a timestep with the given tick length in seconds
+    public FixedTimestep(double tickSeconds) {
+        this.tickSeconds = tickSeconds;
+    }
+
+    /*
+      Adds the time of a rendered frame.
+      ElapsedTime - seconds since the previous frame
+      Return the number of ticks to simulate for this frame
+    */
+    public int advance(double elapsedTime) {
+        accumulator += Math.min(Math.max(elapsedTime, 0), MAX_FRAME_TIME);
+        int ticks = (int) (accumulator / tickSeconds);
+        accumulator -= ticks * tickSeconds;
+        return ticks;
+    }
+
+    /*
+      Returns how far the current frame is between the previous and the next tick,
+      from 0 (previous tick) to 1 (next tick).
+    */
+    public double getAlpha() {
+        return accumulator / tickSeconds;
+    }
+
+    // Drops any time left over, used when a new game starts
+    public void reset() {
+        accumulator = 0;
+    }
+
+    // Returns the length of one tick in seconds
+    public double getTickSeconds() {
+        return tickSeconds;
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.droopychopper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/*
+  The FrameProfiler class records how long each frame took and how that time was split between
+  input, simulation, collision and rendering. Samples go into a fixed ring buffer that the game
+  thread writes without locks; the frame count is published last, so a reader sees whole frames.
+  It reports frame time percentiles and dropped frames, and can export the raw samples to a file.
+  It also keeps the latest input latencies: the time from a key press to the end of the first frame
+  that draws its effect.
+*/
+public class FrameProfiler {
+    // Parts of a frame that are timed
+    public enum Phase {
+        INPUT, SIMULATE, COLLIDE, RENDER
+    }
+
+    // Number of frames kept, about a minute at 60 frames per second
+    public static final int DEFAULT_CAPACITY = 4096;
+    // Time one frame may take at 60 frames per second
+    public static final double DEFAULT_BUDGET_SECONDS = 1.0 / 60;
+    // A frame longer than this many budgets means at least one frame was not shown
+    private static final double DROP_FACTOR = 1.5;
+    // Number of input latencies kept
+    private static final int INPUT_LATENCY_SAMPLES = 256;
+
+    private static final int PHASES = Phase.values().length;
+
+    // Time between the start of each frame and the previous one, in nanoseconds
+    private final long[] intervals;
+    // Time spent in each phase of each frame, PHASES values per frame
+    private final long[] phaseTimes;
+    // Phase times of the frame being recorded
+    private final long[] current = new long[PHASES];
+    // Time from each input to the frame that showed it, in nanoseconds
+    private final long[] inputLatencies = new long[INPUT_LATENCY_SAMPLES];
+    // Scratch array for sorting, so reports do not allocate
+    private final long[] sorted;
+
+    private final long budgetNanos;
+    private long lastFrameStart;
+    private long droppedFrames, overBudgetFrames;
+    // Number of frames recorded, written after the frame's samples
+    private volatile long frameCount;
+    // Number of input latencies recorded, written after the sample
+    private volatile long inputCount;
+
+    // Creates a profiler with the default capacity and a 60 frames per second budget
+    public FrameProfiler() {
+        this(DEFAULT_CAPACITY, DEFAULT_BUDGET_SECONDS);
+    }
+
+    // Creates a profiler keeping the given number of frames, with the given frame budget in seconds
+    public FrameProfiler(int capacity, double budgetSeconds) {
+        intervals = new long[capacity];
+        phaseTimes = new long[capacity * PHASES];
+        sorted = new long[Math.max(capacity, INPUT_LATENCY_SAMPLES)];
+        budgetNanos = (long) (budgetSeconds * 1_000_000_000L);
+    }
+
+    // Adds time spent in a phase to the current frame
+    public void add(Phase phase, long nanos) {
+        current[phase.ordinal()] += nanos;
+    }
+
+    /*
+      Ends the current frame and stores its samples.
+      Now - the start time of the next frame in nanoseconds, as passed to AnimationTimer.handle
+    */
+    public void endFrame(long now) {
+        long count = frameCount;
+        int slot = (int) (count % intervals.length);
+        long interval = lastFrameStart == 0 ? 0 : now - lastFrameStart;
+        lastFrameStart = now;
+
+        long work = 0;
+        for (int i = 0; i < PHASES; i++) {
+            phaseTimes[slot * PHASES + i] = current[i];
+            work += current[i];
+            current[i] = 0;
+        }
+        intervals[slot] = interval;
+
+        if (work > budgetNanos) {
+            overBudgetFrames++;
+        }
+        if (interval > budgetNanos * DROP_FACTOR) {
+            droppedFrames++;
+        }
+        frameCount = count + 1;
+    }
+
+    /*
+      Adds the latency of one input, written by the same thread as the frames.
+      Nanos - the time from the input to the end of the first frame that drew its effect
+    */
+    public void addInputLatency(long nanos) {
+        long count = inputCount;
+        inputLatencies[(int) (count % INPUT_LATENCY_SAMPLES)] = nanos;
+        inputCount = count + 1;
+    }
+
+    /*
+      Returns a percentile of the frame times kept in the buffer, in milliseconds.
+      Percentile - from 0 to 100, for example 99 for the time 99% of frames stay under
+    */
+    public double getFrameTimePercentile(double percentile) {
+        return percentile(intervals, (int) Math.min(frameCount, intervals.length), percentile);
+    }
+
+    // Returns a percentile of the input latencies kept, in milliseconds
+    public double getInputLatencyPercentile(double percentile) {
+        return percentile(inputLatencies, (int) Math.min(inputCount, INPUT_LATENCY_SAMPLES), percentile);
+    }
+
+    // Returns a percentile of the first count samples in milliseconds, sorting a copy of them
+    private double percentile(long[] samples, int count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        System.arraycopy(samples, 0, sorted, 0, count);
+        Arrays.sort(sorted, 0, count);
+        int index = (int) Math.min(count - 1, Math.ceil(percentile / 100 * count) - 1);
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    // Returns the average time spent in a phase over the frames kept in the buffer, in milliseconds
+    public double getAveragePhaseTime(Phase phase) {
+        int frames = (int) Math.min(frameCount, intervals.length);
+        if (frames == 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < frames; i++) {
+            total += phaseTimes[i * PHASES + phase.ordinal()];
+        }
+        return total / (double) frames / 1_000_000.0;
+    }
+
+    // Returns the number of frames recorded since the profiler was created
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    // Returns the number of input latencies recorded since the profiler was created
+    public long getInputCount() {
+        return inputCount;
+    }
+
+    // Returns the number of frames that came so late that a frame was not shown
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    // Returns the number of frames whose work took longer than the budget
+    public long getOverBudgetFrames() {
+        return overBudgetFrames;
+    }
+
+    /*
+      Writes the frames kept in the buffer to a CSV file, oldest first, with times in nanoseconds.
+      Path - the file to write
+    */
+    public void exportCsv(Path path) throws IOException {
+        long count = frameCount;
+        long first = Math.max(0, count - intervals.length);
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write("frame,interval,input,simulate,collide,render\n");
+            for (long frame = first; frame < count; frame++) {
+                int slot = (int) (frame % intervals.length);
+                writer.write(frame + "," + intervals[slot]);
+                for (int i = 0; i < PHASES; i++) {
+                    writer.write("," + phaseTimes[slot * PHASES + i]);
+                }
+                writer.write("\n");
+            }
+        }
+    }
+}
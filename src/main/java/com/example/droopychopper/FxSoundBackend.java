@@ -0,0 +1,72 @@
+package com.example.droopychopper;
+
+import javafx.scene.media.AudioClip;
+
+import java.net.URL;
+
+/*
+  The FxSoundBackend class plays sounds with the JavaFX AudioClip class, which decodes a file once
+  and can play it several times at once. Every voice of a sound plays on the same clip, and the
+  SoundManager's voice stealing limits how many play together.
+  An AudioClip can only stop all of its playbacks together, so stopping a voice while other voices of
+  the sound are still playing, as voice stealing does, only forgets it and lets its playback finish;
+  stopping the last voice, for example when the sound is stopped or muted, stops the clip. A sound
+  whose voices must each be stoppable on their own should use PcmSoundBackend.
+*/
+public class FxSoundBackend implements SoundManager.Backend {
+    @Override
+    public SoundManager.Sample load(String path) {
+        URL resource = FxSoundBackend.class.getResource(path);
+        if (resource == null) {
+            throw new IllegalArgumentException("Sound not found: " + path);
+        }
+        return new FxSample(new AudioClip(resource.toExternalForm()));
+    }
+
+    // A decoded sound and the number of its voices not stopped yet; used only under the SoundManager's lock
+    private static class FxSample implements SoundManager.Sample {
+        private final AudioClip clip;
+        private int voices;
+
+        private FxSample(AudioClip clip) {
+            this.clip = clip;
+        }
+
+        @Override
+        public SoundManager.Voice play(boolean loop) {
+            if (!clip.isPlaying()) {
+                voices = 0; // Every earlier voice has finished
+            }
+            voices++;
+            clip.setCycleCount(loop ? AudioClip.INDEFINITE : 1);
+            clip.play();
+            return new FxVoice(this);
+        }
+    }
+
+    // One playback of a clip; it stops playing when the clip ends or it is stopped
+    private static class FxVoice implements SoundManager.Voice {
+        private final FxSample sample;
+        private boolean stopped;
+
+        private FxVoice(FxSample sample) {
+            this.sample = sample;
+        }
+
+        @Override
+        public boolean isPlaying() {
+            return !stopped && sample.clip.isPlaying();
+        }
+
+        @Override
+        public void stop() {
+            if (stopped) {
+                return;
+            }
+            stopped = true;
+            if (--sample.voices <= 0) {
+                sample.clip.stop();
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.droopychopper;
+
+/*
+  The GameParams record holds the numbers that decide how hard a game is, so difficulty can be tuned
+  by simulating games with other values. The game window always plays with DEFAULT.
+  PipePairHeight - combined height of the two pipes of a pair; the gap is the rest of the floor height
+  FlapVelocity - vertical velocity set by a flap, in pixels per second (negative is up)
+  FallVelocity - vertical velocity added when a flap ends, in pixels per second
+  ScrollVelocity - horizontal speed of pipes and floor, in pixels per second (negative is left)
+  FairGaps - true to only generate gaps the chopper can reach from the previous one, see GapGenerator
+*/
+public record GameParams(int pipePairHeight, double flapVelocity, double fallVelocity, double scrollVelocity,
+                         boolean fairGaps) {
+    // The values of the game window
+    public static final GameParams DEFAULT = new GameParams(GameWorld.PIPE_PAIR_HEIGHT, GameWorld.FLAP_VELOCITY,
+            GameWorld.FALL_VELOCITY, GameWorld.SCROLL_VELOCITY);
+
+    // Creates values whose gaps are drawn without looking at the previous gap, like the game window's
+    public GameParams(int pipePairHeight, double flapVelocity, double fallVelocity, double scrollVelocity) {
+        this(pipePairHeight, flapVelocity, fallVelocity, scrollVelocity, false);
+    }
+
+    // Returns the same values with gaps generated fairly or not
+    public GameParams withFairGaps(boolean fairGaps) {
+        return new GameParams(pipePairHeight, flapVelocity, fallVelocity, scrollVelocity, fairGaps);
+    }
+
+    // Returns the height of the gap between the pipes of a pair
+    public int getGapHeight() {
+        return GameWorld.FLOOR_Y - pipePairHeight;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("gap %d flap %.0f fall %.0f scroll %.0f%s", getGapHeight(), flapVelocity, fallVelocity,
+                scrollVelocity, fairGaps ? " fair" : "");
+    }
+}
@@ -0,0 +1,620 @@
+package com.example.droopychopper;
+
+import java.util.SplittableRandom;
+
+/*
+  The GameWorld class holds all the game logic of Droopy Chopper: chopper physics, scrolling pipes
+  and floor, scoring and collisions. It uses no JavaFX types, so it can be stepped without a window,
+  for example to simulate many games for balancing and regression testing.
+  DroopyChopper draws the world and reacts to its events through a Listener.
+  Every game draws its pipe heights from its own generator, started from a seed, so a game can be
+  played again exactly from its seed and worlds on different threads never share a generator.
+  The world records the tick of every input it accepts, so the seed and the recording replay the game.
+*/
+public class GameWorld {
+    // Dimensions of the game area
+    public static final int WIDTH = 400;
+    public static final int HEIGHT = 700;
+    // Y position of the top of the floor
+    public static final int FLOOR_Y = HEIGHT - 100;
+    // Size of the floor tiles
+    public static final int FLOOR_WIDTH = 400;
+    public static final int FLOOR_HEIGHT = 140;
+
+    // Size and start position of the chopper
+    public static final int CHOPPER_WIDTH = 50;
+    public static final int CHOPPER_HEIGHT = 45;
+    public static final double CHOPPER_START_X = 70;
+    public static final double CHOPPER_START_Y = 200;
+    // Number of frames in the chopper flight animation
+    public static final int CHOPPER_FRAMES = 4;
+
+    // Length of one simulation tick in seconds used by the game window
+    public static final double TICK_SECONDS = 1.0 / 120;
+    // Horizontal speed of pipes and floor in pixels per second (-0.4 * update(5) per frame at 60 Hz)
+    public static final double SCROLL_VELOCITY = -120;
+    // Speed of the chopper flight animation, 0.18 per frame at 60 Hz
+    private static final double ANIMATION_RATE = 0.18 * 60;
+
+    // Combined height of an up and down pipe pair, the rest of the floor height is the gap
+    public static final int PIPE_PAIR_HEIGHT = 425;
+    // Vertical velocity set by a flap, and added when a flap ends, in pixels per second
+    public static final double FLAP_VELOCITY = -350;
+    public static final double FALL_VELOCITY = 800;
+    // Time the chopper keeps rising after a flap, in seconds
+    public static final double FLAP_DURATION = 0.3;
+    // X position the newest pipe pair reaches when the next pair appears
+    public static final double NEXT_PIPE_X = WIDTH / 2 - 80;
+    // Most positions tested pixel by pixel along one swept movement
+    private static final int MAX_SWEEP_SAMPLES = 64;
+
+    /*
+      Receives the events of the game world, so a renderer can play sounds and update the UI.
+    */
+    public interface Listener {
+        // Called when the first input starts the game
+        default void onGameStart() {
+        }
+
+        // Called when the chopper flaps upwards
+        default void onFlap() {
+        }
+
+        // Called when the chopper passes a pipe
+        default void onScore(int totalScore) {
+        }
+
+        // Called when the chopper hits a pipe
+        default void onHitPipe() {
+        }
+
+        // Called when the chopper hits the floor and the game ends
+        default void onGameOver(int totalScore) {
+        }
+    }
+
+    /*
+      Gives the pipe heights of a game, for example generated ahead on another thread.
+      A source must give the same heights as a GapGenerator drawing from SplittableRandom(seed),
+      so that a game plays the same with or without it.
+    */
+    public interface GapSource {
+        // Starts the heights of a new game with the given seed and values
+        void reset(long seed, GameParams params);
+
+        // Returns the height of the pipe standing on the floor for the next pair
+        int next();
+    }
+
+    // Listener that ignores every event, used when running without a renderer
+    private static final Listener NO_LISTENER = new Listener() {
+    };
+
+    // Variables to track the score and game state
+    private int totalScore;
+    private double time, clickTime, motionTime;
+    private boolean clicked, gameStarted, hitPipe, gameOver;
+    // Current frame of the chopper flight animation
+    private int chopperFrame;
+
+    // Bodies for game elements
+    private final Body chopper = new Body(CHOPPER_WIDTH, CHOPPER_HEIGHT);
+    private final Body firstFloor = new Body(FLOOR_WIDTH, FLOOR_HEIGHT);
+    private final Body secondFloor = new Body(FLOOR_WIDTH, FLOOR_HEIGHT);
+
+    // Ring of reusable pipe pairs in the game, oldest first
+    private final PipePool pipes = new PipePool();
+
+    // Receiver of the game events
+    private Listener listener = NO_LISTENER;
+
+    // Receives the time spent simulating and colliding, null when not profiling
+    private FrameProfiler profiler;
+
+    // Collision masks of the chopper frames and pipe textures, null to collide with boxes only
+    private CollisionMask[] chopperMasks;
+    private CollisionMask upPipeMask, downPipeMask;
+
+    // Length of one tick of this world in seconds
+    private final double tickSeconds;
+    // Gap, flap, fall and scroll values of this world
+    private final GameParams params;
+
+    // Seed of the current game and the generator started from it
+    private long seed;
+    private SplittableRandom random;
+    // Draws the pipe heights and follows where the chopper can reach
+    private final GapGenerator gaps;
+    // Gives the pipe heights instead of gaps when set
+    private GapSource gapSource;
+    // Number of ticks run since the game was reset
+    private long tickCount;
+    // Ticks of the inputs accepted in the current game
+    private final InputRecording recording = new InputRecording();
+
+    // Creates a world ready for a new game, advancing TICK_SECONDS per tick
+    public GameWorld() {
+        this(TICK_SECONDS);
+    }
+
+    /*
+      Creates a world ready for a new game with its own tick length.
+      Collisions are swept over each tick's movement, so long ticks (for example when simulating
+      many games in batch) do not let the chopper pass through pipes or the floor.
+      TickSeconds - the length of one tick in seconds
+    */
+    public GameWorld(double tickSeconds) {
+        this(tickSeconds, newSeed());
+    }
+
+    /*
+      Creates a world ready for a new game whose pipes are generated from the given seed.
+      TickSeconds - the length of one tick in seconds
+      Seed - the seed of the game, for example one recorded with a score
+    */
+    public GameWorld(double tickSeconds, long seed) {
+        this(tickSeconds, seed, GameParams.DEFAULT);
+    }
+
+    /*
+      Creates a world ready for a new game that plays with other difficulty values than the game window,
+      for example to tune them by simulating many games.
+      Params - the gap, flap, fall and scroll values
+    */
+    public GameWorld(double tickSeconds, long seed, GameParams params) {
+        this.tickSeconds = tickSeconds;
+        this.params = params;
+        this.gaps = new GapGenerator(params);
+        reset(seed);
+    }
+
+    // Returns a new random seed; safe to call from any thread
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    // Sets the receiver of the game events, null to ignore them
+    public void setListener(Listener listener) {
+        this.listener = listener == null ? NO_LISTENER : listener;
+    }
+
+    // Sets the profiler that receives the time spent in each tick, null to stop profiling
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /*
+      Sets where the pipe heights come from, null to draw them on the thread running the world.
+      The world is reset to the start of its current game, so every height of the game comes from the source.
+    */
+    public void setGapSource(GapSource gapSource) {
+        this.gapSource = gapSource;
+        reset(seed);
+    }
+
+    /*
+      Sets the collision masks used to test pipe hits pixel by pixel after the box test.
+      Without masks, for example when running without images, the boxes alone decide a hit.
+      ChopperMasks - one mask per chopper animation frame
+      UpPipeMask, DownPipeMask - the masks of the pipe textures, laid out as described by PipeSkin
+    */
+    public void setCollisionMasks(CollisionMask[] chopperMasks, CollisionMask upPipeMask, CollisionMask downPipeMask) {
+        this.chopperMasks = chopperMasks;
+        this.upPipeMask = upPipeMask;
+        this.downPipeMask = downPipeMask;
+    }
+
+    /*
+      Puts every element back at its starting position for a new game with a new random seed.
+    */
+    public void reset() {
+        reset(newSeed());
+    }
+
+    /*
+      Puts every element back at its starting position for a new game generated from the given seed.
+      The same seed and the same inputs on the same ticks always play the same game.
+    */
+    public void reset(long seed) {
+        this.seed = seed;
+        if (gapSource != null) {
+            gapSource.reset(seed, params);
+        } else {
+            random = new SplittableRandom(seed);
+            gaps.reset();
+        }
+        tickCount = 0;
+        recording.clear();
+        totalScore = 0;
+        time = 0;
+        // The chopper starts falling as soon as the game starts
+        clickTime = -FLAP_DURATION;
+        motionTime = 0;
+        chopperFrame = 0;
+        clicked = false;
+        gameStarted = false;
+        hitPipe = false;
+        gameOver = false;
+
+        chopper.setPositionXY(CHOPPER_START_X, CHOPPER_START_Y);
+        chopper.setVelocity(0, 0);
+        setFloor();
+        pipes.clear();
+        setPipes();
+    }
+
+    /*
+      Handles the user input (spacebar press): starts the game or makes the chopper flap.
+    */
+    public void onUserInput() {
+        // Check if the chopper has not hit a pipe
+        if (!hitPipe && !gameOver) {
+            clicked = true; // Mark that the user has clicked
+            recording.add(tickCount); // Remember the input to replay the game
+
+            // Check if the game has not started yet
+            if (!gameStarted) {
+                gameStarted = true;
+                listener.onGameStart();
+            } else {
+                listener.onFlap();
+                clickTime = time; // Record the time of the spacebar click
+                chopper.setVelocity(0, params.flapVelocity()); // Set the upward velocity of the chopper
+            }
+        }
+    }
+
+    /*
+      Advances the world by one fixed tick.
+      Positions at the start of the tick are kept so the renderer can draw between ticks
+      and collisions can be tested along the whole movement of the tick.
+    */
+    public void tick() {
+        if (gameOver) {
+            return;
+        }
+        double elapsedTime = tickSeconds;
+        time += elapsedTime;
+        tickCount++;
+        long simulateStart = profiler == null ? 0 : System.nanoTime();
+        storePreviousPositions();
+
+        // Move the floor horizontally
+        moveFloor(elapsedTime);
+        // Check the time between space hits and move the chopper
+        checkTimeBetweenSpaceHits(elapsedTime);
+
+        if (gameStarted) {
+            // Move the pipes, create new ones and update the score
+            movePipes(elapsedTime);
+            checkPipeScroll();
+            updateTotalScore();
+        }
+
+        long collideStart = profiler == null ? 0 : System.nanoTime();
+        if (gameStarted) {
+            // Check if chopper hits a pipe
+            if (chopperHitPipe()) {
+                stopScroll();
+                listener.onHitPipe();
+                motionTime += ANIMATION_RATE * elapsedTime;
+                if (motionTime > 0.5) {
+                    // Add a sudden backwards motion to the chopper when hit
+                    chopper.addVelocity(-200, 400);
+                    chopper.update(elapsedTime);
+                    motionTime = 0;
+                }
+            }
+
+            // Check if chopper hits the floor
+            if (chopperHitFloor()) {
+                gameOver = true;
+                recording.end(tickCount);
+                listener.onGameOver(totalScore);
+            }
+        }
+
+        if (profiler != null) {
+            long end = System.nanoTime();
+            profiler.add(FrameProfiler.Phase.SIMULATE, collideStart - simulateStart);
+            profiler.add(FrameProfiler.Phase.COLLIDE, end - collideStart);
+        }
+    }
+
+    /*
+       Apply the fall after a flap has lasted long enough, then move and animate the chopper.
+    */
+    private void checkTimeBetweenSpaceHits(double elapsedTime) {
+        if (time - clickTime >= FLAP_DURATION && clicked) {
+            clicked = false;
+            chopper.addVelocity(0, params.fallVelocity()); // Make the chopper fall
+            chopper.update(elapsedTime);
+        } else {
+            animateChopper(elapsedTime);
+        }
+    }
+
+    /*
+      Moves the chopper and switches its animation frame while it is flapping.
+    */
+    private void animateChopper(double elapsedTime) {
+        chopper.update(elapsedTime);
+
+        motionTime += ANIMATION_RATE * elapsedTime;
+        if (motionTime > 0.5 && clicked) {
+            chopperFrame = (chopperFrame + 1) % CHOPPER_FRAMES;
+            motionTime = 0;
+        }
+    }
+
+    /*
+       Initializes the two floor bodies side by side for the scrolling effect.
+    */
+    private void setFloor() {
+        firstFloor.setPositionXY(0, FLOOR_Y);
+        firstFloor.setVelocity(params.scrollVelocity(), 0);
+        secondFloor.setPositionXY(firstFloor.getWidth(), FLOOR_Y);
+        secondFloor.setVelocity(params.scrollVelocity(), 0);
+    }
+
+    /*
+       Moves the floor bodies and puts a floor that left the screen behind the other one.
+    */
+    private void moveFloor(double elapsedTime) {
+        firstFloor.update(elapsedTime);
+        secondFloor.update(elapsedTime);
+
+        if (firstFloor.getPositionX() <= -WIDTH) {
+            firstFloor.setPositionXY(secondFloor.getPositionX() + secondFloor.getWidth(), FLOOR_Y);
+        } else if (secondFloor.getPositionX() <= -WIDTH) {
+            secondFloor.setPositionXY(firstFloor.getPositionX() + firstFloor.getWidth(), FLOOR_Y);
+        }
+    }
+
+    // Moves all pipes currently in the world
+    private void movePipes(double elapsedTime) {
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).update(elapsedTime);
+        }
+    }
+
+    // Remembers where every body was at the start of the tick
+    private void storePreviousPositions() {
+        chopper.storePreviousPosition();
+        firstFloor.storePreviousPosition();
+        secondFloor.storePreviousPosition();
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).storePreviousPosition();
+        }
+    }
+
+    // Returns true if the body moved across the given X position during this tick, going left
+    private static boolean crossedX(Body body, double x) {
+        return body.getPreviousX() > x && body.getPositionX() <= x;
+    }
+
+    /*
+        Spawns a new pair of pipes when the newest pair reaches a specific position,
+        and gives the oldest pair back to the pool once it has scrolled off-screen.
+    */
+    private void checkPipeScroll() {
+        if (pipes.size() > 0) {
+            // Create new set of pipes when the last pipe reaches a specific position
+            Body last = pipes.getLast().getUpPipe().getPipe();
+            if (crossedX(last, NEXT_PIPE_X)) {
+                setPipes();
+                // Keep the same distance between pairs when a long tick went past the spawn position
+                pipes.getLast().shiftX(last.getPositionX() - NEXT_PIPE_X);
+            }
+
+            // Recycle the oldest pair once it has left the screen
+            if (pipes.getFirst().getPositionX() <= -Pipe.PIPE_WIDTH) {
+                pipes.recycleOldest();
+            }
+        }
+    }
+
+    /*
+        Places a recycled pair of pipes with a random height, moving towards the chopper.
+    */
+    private void setPipes() {
+        int upHeight = getRandomPipeHeight();
+        PipePair pair = pipes.spawn(upHeight, params.pipePairHeight() - upHeight);
+        pair.setVelocity(params.scrollVelocity(), 0);
+    }
+
+    // Generates a random height for the up pipe, between 25 and 410 with the default values
+    private int getRandomPipeHeight() {
+        return gapSource != null ? gapSource.next() : gaps.next(random);
+    }
+
+    /*
+      Increases the score when the chopper passes a pair of pipes.
+      Only the pairs around the chopper's X column are checked.
+    */
+    private void updateTotalScore() {
+        if (!hitPipe) {
+            double x = chopper.getPositionX();
+            for (int i = pipes.firstEndingAfter(x); i < pipes.size() && pipes.get(i).getPositionX() <= x; i++) {
+                if (crossedX(pipes.get(i).getUpPipe().getPipe(), x)) {
+                    listener.onScore(++totalScore);
+                    break;
+                }
+            }
+        }
+    }
+
+    /*
+      Returns true the first time the chopper touches any of the pipes during the tick.
+      Only the pairs that could have overlapped the chopper's X range during the tick are checked.
+    */
+    private boolean chopperHitPipe() {
+        double minX = Math.min(chopper.getPreviousX(), chopper.getPositionX()) - Math.abs(params.scrollVelocity()) * tickSeconds;
+        double maxX = Math.max(chopper.getPreviousX(), chopper.getPositionX()) + chopper.getWidth();
+        for (int i = pipes.firstEndingAfter(minX);
+             i < pipes.size() && pipes.get(i).getPositionX() < maxX && !hitPipe; i++) {
+            PipePair pair = pipes.get(i);
+            if (chopperHits(pair.getUpPipe()) || chopperHits(pair.getDownPipe())) {
+                hitPipe = true;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+      Returns true if the chopper touched the pipe during the tick, and moves the chopper back to where it touched.
+      The boxes are swept over the tick's movement first; when masks are set, the solid pixels are then
+      compared at positions about a pixel apart from the first box contact to the end of the tick.
+    */
+    private boolean chopperHits(Pipe pipe) {
+        Body body = pipe.getPipe();
+        double enter = chopper.sweepTime(body);
+        if (enter < 0) {
+            return false;
+        }
+        CollisionMask chopperMask = chopperMasks == null ? null : chopperMasks[chopperFrame % chopperMasks.length];
+        CollisionMask pipeMask = pipe.isFaceUp() ? upPipeMask : downPipeMask;
+        if (chopperMask == null || pipeMask == null) {
+            moveChopperBackTo(enter);
+            return true;
+        }
+
+        // Relative movement left after the first box contact, in pixels, decides how many positions to test
+        double moveX = (chopper.getPositionX() - chopper.getPreviousX()) - (body.getPositionX() - body.getPreviousX());
+        double moveY = (chopper.getPositionY() - chopper.getPreviousY()) - (body.getPositionY() - body.getPreviousY());
+        int samples = (int) Math.min(MAX_SWEEP_SAMPLES, Math.ceil((Math.abs(moveX) + Math.abs(moveY)) * (1 - enter)));
+        for (int i = 0; i <= samples; i++) {
+            double t = samples == 0 ? 1 : enter + (1 - enter) * i / samples;
+            if (masksOverlap(chopperMask, chopper.getInterpolatedX(t), chopper.getInterpolatedY(t),
+                    pipe, pipeMask, body.getInterpolatedX(t), body.getInterpolatedY(t))) {
+                moveChopperBackTo(t);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Moves the chopper back to where it was at the given time of the tick, from 0 to 1
+    private void moveChopperBackTo(double t) {
+        chopper.moveTo(chopper.getInterpolatedX(t), chopper.getInterpolatedY(t));
+    }
+
+    /*
+      Compares the solid pixels of the chopper and a pipe at the given positions, one row at a time
+      where their boxes overlap. Each row of a pipe maps to a row of its texture mask through PipeSkin.
+    */
+    private boolean masksOverlap(CollisionMask chopperMask, double chopperPositionX, double chopperPositionY,
+                                 Pipe pipe, CollisionMask pipeMask, double pipePositionX, double pipePositionY) {
+        int chopperX = (int) Math.floor(chopperPositionX);
+        int chopperY = (int) Math.floor(chopperPositionY);
+        int pipeX = (int) Math.floor(pipePositionX);
+        int pipeY = (int) Math.floor(pipePositionY);
+        int pipeHeight = (int) pipe.getPipe().getHeight();
+
+        int top = Math.max(chopperY, pipeY);
+        int bottom = Math.min(chopperY + chopperMask.getHeight(), pipeY + pipeHeight);
+        for (int y = top; y < bottom; y++) {
+            int pipeRow = PipeSkin.textureRow(pipe.isFaceUp(), y - pipeY, pipeHeight);
+            if (chopperMask.rowOverlaps(y - chopperY, pipeMask, pipeRow, pipeX - chopperX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+      Returns true if the chopper touched either floor during the tick or was knocked off the left of the screen.
+      On a floor hit the chopper is moved back to where it first touched the floor.
+    */
+    private boolean chopperHitFloor() {
+        double enter = chopper.sweepTime(firstFloor);
+        if (enter < 0) {
+            enter = chopper.sweepTime(secondFloor);
+        }
+        if (enter >= 0) {
+            moveChopperBackTo(enter);
+            return true;
+        }
+        return chopper.getPositionX() < 0;
+    }
+
+    // Stops the scrolling of pipes and floors
+    private void stopScroll() {
+        for (int i = 0; i < pipes.size(); i++) {
+            pipes.get(i).setVelocity(0, 0);
+        }
+        firstFloor.setVelocity(0, 0);
+        secondFloor.setVelocity(0, 0);
+    }
+
+    // Returns the body of the chopper
+    public Body getChopper() {
+        return chopper;
+    }
+
+    // Returns the current frame of the chopper flight animation
+    public int getChopperFrame() {
+        return chopperFrame;
+    }
+
+    // Returns the first floor body
+    public Body getFirstFloor() {
+        return firstFloor;
+    }
+
+    // Returns the second floor body
+    public Body getSecondFloor() {
+        return secondFloor;
+    }
+
+    // Returns the pool holding the pipe pairs currently in the world, oldest first
+    public PipePool getPipes() {
+        return pipes;
+    }
+
+    // Returns the gap, flap, fall and scroll values of this world
+    public GameParams getParams() {
+        return params;
+    }
+
+    // Returns the length of one tick of this world in seconds
+    public double getTickSeconds() {
+        return tickSeconds;
+    }
+
+    // Returns the seed the current game was generated from
+    public long getSeed() {
+        return seed;
+    }
+
+    // Returns the number of ticks run since the game was reset
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // Returns the inputs accepted in the current game; cleared when the world is reset
+    public InputRecording getRecording() {
+        return recording;
+    }
+
+    // Returns the score of the current game
+    public int getTotalScore() {
+        return totalScore;
+    }
+
+    // Returns true once the first input has started the game
+    public boolean isGameStarted() {
+        return gameStarted;
+    }
+
+    // Returns true once the chopper has hit a pipe
+    public boolean isHitPipe() {
+        return hitPipe;
+    }
+
+    // Returns true once the chopper has hit the floor
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
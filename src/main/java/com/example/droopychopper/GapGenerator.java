@@ -0,0 +1,109 @@
+package com.example.droopychopper;
+
+import java.util.SplittableRandom;
+
+/*
+  The GapGenerator class draws the height of every new pipe pair and follows the band of heights the
+  chopper can be at when it reaches that pair, to tell whether the gaps can still be flown through.
+  The band is worked out from the flight of the chopper: it climbs at most at the flap velocity and
+  falls at most at the flap and fall velocities together, so between two pairs the band grows by
+  those speeds times the time the pipes need to scroll to the chopper. While the chopper is between
+  the pipes of a pair the band is cut to the gap, then grows again inside the gap. A gap with less
+  room than one flap's rise cannot be held, since every flap lifts the chopper that far.
+  The band assumes a perfect player; it tells which gaps can be reached at all, not how hard they are.
+  With fair gaps each height is drawn only from the heights whose gap meets the band, which costs the
+  same single draw as a free height.
+*/
+public class GapGenerator {
+    // Shortest pipe standing on the floor and shortest pipe hanging from the top
+    public static final int MIN_UP_PIPE_HEIGHT = 25;
+    public static final int MIN_DOWN_PIPE_HEIGHT = 16;
+
+    private final GameParams params;
+    // Tallest pipe standing on the floor
+    private final int maxUpHeight;
+    // Fastest climb and fall of the chopper in pixels per second, both positive
+    private final double climbRate, fallRate;
+    // Seconds from the first input to the first pair, between two pairs, and to pass the pipes of a pair
+    private final double firstTravelTime, travelTime, passTime;
+    // True if a gap leaves room for the rise of one flap
+    private final boolean holdable;
+
+    // Band of Y positions of the top of the chopper that can be reached, and seconds until the next pair
+    private double low, high, nextTravelTime;
+    // False once a gap could not be reached
+    private boolean reachable;
+
+    // Creates a generator for games with the given values, ready for the first pair
+    public GapGenerator(GameParams params) {
+        this.params = params;
+        maxUpHeight = params.pipePairHeight() - MIN_DOWN_PIPE_HEIGHT;
+        climbRate = Math.max(0, -params.flapVelocity());
+        fallRate = Math.max(0, params.flapVelocity() + params.fallVelocity());
+        double scroll = Math.abs(params.scrollVelocity());
+        firstTravelTime = (Pipe.SPAWN_X - GameWorld.CHOPPER_START_X - GameWorld.CHOPPER_WIDTH) / scroll;
+        travelTime = (Pipe.SPAWN_X - GameWorld.NEXT_PIPE_X - Pipe.PIPE_WIDTH - GameWorld.CHOPPER_WIDTH) / scroll;
+        passTime = (Pipe.PIPE_WIDTH + GameWorld.CHOPPER_WIDTH) / scroll;
+        holdable = params.getGapHeight() - GameWorld.CHOPPER_HEIGHT >= climbRate * GameWorld.FLAP_DURATION;
+        reset();
+    }
+
+    // Puts the band back at the start position of the chopper, for a new game
+    public void reset() {
+        low = GameWorld.CHOPPER_START_Y;
+        high = GameWorld.CHOPPER_START_Y;
+        nextTravelTime = firstTravelTime;
+        reachable = true;
+    }
+
+    /*
+      Draws the height of the pipe standing on the floor for the next pair and moves the band past that pair.
+      With fair gaps the height is drawn from the heights the band reaches, as long as there are any.
+    */
+    public int next(SplittableRandom random) {
+        int minHeight = MIN_UP_PIPE_HEIGHT;
+        int maxHeight = maxUpHeight;
+        double reachLow = low - climbRate * nextTravelTime;
+        double reachHigh = Math.min(high + fallRate * nextTravelTime, GameWorld.FLOOR_Y - GameWorld.CHOPPER_HEIGHT);
+        if (params.fairGaps() && reachable) {
+            // The gap of height h spans pipePairHeight - h to FLOOR_Y - h; the chopper's top must fit in it
+            int lowest = (int) Math.ceil(params.pipePairHeight() - reachHigh);
+            int highest = (int) Math.floor(GameWorld.FLOOR_Y - GameWorld.CHOPPER_HEIGHT - reachLow);
+            // The subtractions may round across a whole pixel; check the ends the same way pass does
+            if (params.pipePairHeight() - lowest > reachHigh) {
+                lowest++;
+            }
+            if (GameWorld.FLOOR_Y - highest - GameWorld.CHOPPER_HEIGHT < reachLow) {
+                highest--;
+            }
+            minHeight = Math.max(minHeight, lowest);
+            maxHeight = Math.min(maxHeight, highest);
+            if (minHeight > maxHeight) {
+                minHeight = MIN_UP_PIPE_HEIGHT;
+                maxHeight = maxUpHeight;
+            }
+        }
+        int upHeight = random.nextInt(minHeight, maxHeight + 1);
+        pass(upHeight, reachLow, reachHigh);
+        return upHeight;
+    }
+
+    // Cuts the band to the gap of a pair, then lets it grow inside the gap while the pipes pass
+    private void pass(int upHeight, double reachLow, double reachHigh) {
+        double gapTop = params.pipePairHeight() - upHeight;
+        double gapBottom = GameWorld.FLOOR_Y - upHeight - GameWorld.CHOPPER_HEIGHT;
+        low = Math.max(reachLow, gapTop);
+        high = Math.min(reachHigh, gapBottom);
+        if (low > high || !holdable) {
+            reachable = false;
+        }
+        low = Math.max(gapTop, low - climbRate * passTime);
+        high = Math.min(gapBottom, high + fallRate * passTime);
+        nextTravelTime = travelTime;
+    }
+
+    // Returns true if every gap drawn since the last reset can be flown through
+    public boolean isReachable() {
+        return reachable;
+    }
+}
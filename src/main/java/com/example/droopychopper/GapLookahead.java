@@ -0,0 +1,123 @@
+package com.example.droopychopper;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+  The GapLookahead class generates the pipe heights of the game on a background thread, a few pairs
+  ahead of the pipes on screen, so spawning a pair on the game thread only takes the next height from
+  a ring buffer. The ring has one producer (the lookahead thread) and one consumer (the game thread)
+  and needs no lock: each side only writes its own index, and a height is written to its slot before
+  the producer's index is published.
+  A new game changes the epoch; heights generated for an older epoch are skipped by the consumer.
+  The thread draws the heights with the same GapGenerator and SplittableRandom as GameWorld, so a
+  game plays the same with or without lookahead.
+*/
+public class GapLookahead implements GameWorld.GapSource, AutoCloseable {
+    // Number of pairs generated ahead, over half a minute of play with the game's values
+    public static final int LOOKAHEAD_PAIRS = 8;
+    // Time the thread sleeps when the ring is full, and the game thread waits when it is empty
+    private static final long PRODUCER_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long CONSUMER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    // Heights with the epoch they were generated for in the high 32 bits
+    private final long[] ring = new long[LOOKAHEAD_PAIRS];
+    // Next slot the consumer reads and next slot the producer writes, counted from 0 and never wrapped
+    private volatile long head, tail;
+
+    // Game requested by the consumer: its seed and values, published by writing the epoch last
+    private long requestedSeed;
+    private GameParams requestedParams;
+    private volatile int requestedEpoch;
+    // Epoch of the game the consumer is playing, used only by the consumer
+    private int epoch;
+
+    private final Thread thread;
+    private volatile boolean closed;
+    // Number of times the consumer found no height ready
+    private volatile long stalls;
+
+    // Creates the lookahead and starts its thread; it generates nothing until the first reset
+    public GapLookahead() {
+        thread = new Thread(this::run, "gap-lookahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Starts generating the heights of a new game; heights of the previous game still in the ring are skipped
+    @Override
+    public void reset(long seed, GameParams params) {
+        requestedSeed = seed;
+        requestedParams = params;
+        requestedEpoch = ++epoch;
+        LockSupport.unpark(thread);
+    }
+
+    /*
+      Takes the next height of the current game, waiting for the thread if none is ready yet.
+      Throws IllegalStateException if the lookahead is closed and no height is left, as none would ever come
+    */
+    @Override
+    public int next() {
+        boolean stalled = false;
+        while (true) {
+            long position = head;
+            if (position < tail) {
+                long slot = ring[(int) (position % LOOKAHEAD_PAIRS)];
+                head = position + 1;
+                if ((int) (slot >>> 32) == epoch) {
+                    return (int) slot;
+                }
+                continue; // Generated for an earlier game
+            }
+            if (closed) {
+                throw new IllegalStateException("Gap lookahead closed");
+            }
+            if (!stalled) {
+                stalled = true;
+                stalls++;
+            }
+            LockSupport.parkNanos(CONSUMER_PARK_NANOS);
+        }
+    }
+
+    // Generates heights while the ring has room, starting over whenever a new game is requested
+    private void run() {
+        int producing = 0;
+        SplittableRandom random = null;
+        GapGenerator gaps = null;
+        while (!closed) {
+            int requested = requestedEpoch;
+            if (requested != producing) {
+                producing = requested;
+                random = new SplittableRandom(requestedSeed);
+                gaps = new GapGenerator(requestedParams);
+            }
+            long position = tail;
+            if (random == null || position - head >= LOOKAHEAD_PAIRS) {
+                LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+                continue;
+            }
+            ring[(int) (position % LOOKAHEAD_PAIRS)] = ((long) producing << 32) | gaps.next(random);
+            tail = position + 1;
+        }
+    }
+
+    // Returns the number of pairs ready in the ring, including any left from an earlier game
+    public int getReadyPairs() {
+        return (int) (tail - head);
+    }
+
+    // Returns the number of times the game thread had to wait for a height
+    public long getStalls() {
+        return stalls;
+    }
+
+    // Stops the thread; the game thread must not need more heights afterwards
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.droopychopper;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+  The ImageCache class keeps decoded images keyed by file path and size, so every asset is decoded
+  and scaled once and then shared by all sprites and UI elements.
+  It holds at most a fixed number of images and evicts the least recently used one when full.
+  The collision mask of an image is built on first request and kept next to the image.
+  Images and masks are decoded outside the cache lock, so several threads can load assets at once.
+*/
+public class ImageCache {
+    // Number of images kept by the shared cache, well above the number of game assets
+    public static final int DEFAULT_CAPACITY = 64;
+
+    // The cache used by the whole game
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_CAPACITY);
+
+    // Key of a cached image: the file path and the requested size (0 means the image's own size)
+    private record Key(String path, int width, int height) {
+    }
+
+    // A decoded image and its collision mask, built the first time it is asked for
+    private static class Entry {
+        private final Image image;
+        private CollisionMask mask;
+
+        private Entry(Image image) {
+            this.image = image;
+        }
+    }
+
+    // Maximum number of images kept
+    private final int capacity;
+
+    // Cached images in least recently used order
+    private final LinkedHashMap<Key, Entry> images;
+
+    // Counters for cache lookups and evictions
+    private long hits, misses, evictions;
+
+    // Creates a cache holding at most the given number of images
+    public ImageCache(int capacity) {
+        this.capacity = capacity;
+        this.images = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ImageCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // Returns the cache shared by the whole game
+    public static ImageCache getShared() {
+        return SHARED;
+    }
+
+    // Returns the image at the given path in its own size
+    public Image get(String path) {
+        return get(path, 0, 0);
+    }
+
+    /*
+      Returns the image at the given path scaled to the given size, decoding it only on the first request.
+      Path - the resource path of the image, for example "/images/floor.png"
+      Width, Height - the size to scale the image to, 0 to keep the image's own size
+    */
+    public Image get(String path, int width, int height) {
+        return getEntry(path, width, height).image;
+    }
+
+    /*
+      Returns the collision mask of the image at the given path and size, built once from its alpha channel.
+      Return the mask, or null if the image could not be read
+    */
+    public CollisionMask getMask(String path, int width, int height) {
+        Entry entry = getEntry(path, width, height);
+        synchronized (this) {
+            if (entry.mask != null) {
+                return entry.mask;
+            }
+        }
+        CollisionMask mask = buildMask(entry.image);
+        synchronized (this) {
+            if (entry.mask == null) {
+                entry.mask = mask;
+            }
+            return entry.mask;
+        }
+    }
+
+    /*
+      Returns the cache entry for an image, decoding the image if it is not cached.
+      Two threads asking for the same new image may both decode it; the first one stored is kept.
+    */
+    private Entry getEntry(String path, int width, int height) {
+        Key key = new Key(path, width, height);
+        synchronized (this) {
+            Entry entry = images.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+        }
+        Image image = new Image(toUrl(path), width, height, false, false);
+        synchronized (this) {
+            Entry entry = images.get(key);
+            if (entry != null) {
+                hits++;
+                return entry;
+            }
+            misses++;
+            entry = new Entry(image);
+            images.put(key, entry);
+            return entry;
+        }
+    }
+
+    // Reads the pixels of a decoded image into a collision mask
+    private static CollisionMask buildMask(Image image) {
+        PixelReader reader = image.getPixelReader();
+        if (reader == null || image.isError()) {
+            return null;
+        }
+        int width = (int) image.getWidth();
+        int height = (int) image.getHeight();
+        int[] argb = new int[width * height];
+        reader.getPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(), argb, 0, width);
+        return CollisionMask.fromArgb(argb, width, height);
+    }
+
+    // Resolves a resource path to the URL the Image class loads from
+    private String toUrl(String path) {
+        URL resource = ImageCache.class.getResource(path);
+        return resource != null ? resource.toExternalForm() : path;
+    }
+
+    // Removes all images from the cache
+    public synchronized void clear() {
+        images.clear();
+    }
+
+    // Returns the number of images in the cache
+    public synchronized int size() {
+        return images.size();
+    }
+
+    // Returns the number of requests answered from the cache
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    // Returns the number of requests that had to decode an image
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    // Returns the number of images removed to stay within the capacity
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+}
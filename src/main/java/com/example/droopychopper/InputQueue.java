@@ -0,0 +1,77 @@
+package com.example.droopychopper;
+
+/*
+  The InputQueue class carries the times of key presses from the UI thread to the simulation thread.
+  Each input is the System.nanoTime() it was pressed at, so the simulation can give it to the tick
+  due at that time rather than to whichever tick runs next.
+  The queue has one producer and one consumer and needs no lock, like the ring of GapLookahead:
+  each side only writes its own index, and a time is written to its slot before the producer's index
+  is published. Its slots are allocated once; an input offered to a full queue is dropped and counted.
+*/
+public class InputQueue {
+    // Default number of inputs held, far more than a player presses in one tick
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private final long[] times;
+    private final int mask;
+    // Next slot the consumer reads and next slot the producer writes, counted from 0 and never wrapped
+    private volatile long head, tail;
+    // Number of inputs offered to a full queue
+    private volatile long dropped;
+
+    // Creates a queue holding DEFAULT_CAPACITY inputs
+    public InputQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates a queue holding the given number of inputs, rounded up to a power of two
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        times = new long[size];
+        mask = size - 1;
+    }
+
+    /*
+      Adds an input; called only by the producer thread.
+      Nanos - the time of the input from System.nanoTime()
+      Return false if the queue was full and the input was dropped
+    */
+    public boolean offer(long nanos) {
+        long position = tail;
+        if (position - head >= times.length) {
+            dropped++;
+            return false;
+        }
+        times[(int) (position & mask)] = nanos;
+        tail = position + 1;
+        return true;
+    }
+
+    // Returns the time of the oldest input without taking it; called only by the consumer thread, when not empty
+    public long peek() {
+        return times[(int) (head & mask)];
+    }
+
+    // Takes the oldest input and returns its time; called only by the consumer thread, when not empty
+    public long poll() {
+        long position = head;
+        long time = times[(int) (position & mask)];
+        head = position + 1;
+        return time;
+    }
+
+    // Returns true if no input is waiting
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    // Returns the number of inputs waiting
+    public int size() {
+        return (int) (tail - head);
+    }
+
+    // Returns the number of inputs dropped because the queue was full
+    public long getDropped() {
+        return dropped;
+    }
+}
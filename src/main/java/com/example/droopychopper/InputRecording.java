@@ -0,0 +1,122 @@
+package com.example.droopychopper;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+  The InputRecording class keeps the inputs of one game as the ticks they were made on, counted from
+  the start of the game. With the seed of the game, that is all a GameWorld needs to play the game
+  again exactly, since the world only changes on ticks and inputs.
+  Encoded, a recording is the number of inputs, the tick differences between inputs and the tick the
+  game ended on, all as varints, so a flap usually takes one byte.
+*/
+public class InputRecording {
+    // A recording without inputs, as stored for scores saved before inputs were recorded
+    public static final byte[] NO_INPUTS = new byte[0];
+
+    // Ticks of the inputs, in order; only the first size are used
+    private long[] ticks = new long[64];
+    private int size;
+    // Tick the game ended on, -1 while it goes on
+    private long endTick = -1;
+
+    // Removes every input, for a new game
+    public void clear() {
+        size = 0;
+        endTick = -1;
+    }
+
+    // Adds an input made before the given tick ran, ticks counted from 0
+    public void add(long tick) {
+        if (size == ticks.length) {
+            ticks = Arrays.copyOf(ticks, size * 2);
+        }
+        ticks[size++] = tick;
+    }
+
+    // Marks the tick the game ended on
+    public void end(long tick) {
+        endTick = tick;
+    }
+
+    // Returns the number of inputs
+    public int size() {
+        return size;
+    }
+
+    // Returns the tick of the input at the given index
+    public long getTick(int index) {
+        return ticks[index];
+    }
+
+    // Returns the tick the game ended on, -1 if it had not ended
+    public long getEndTick() {
+        return endTick;
+    }
+
+    // Returns true if the game of this recording ended
+    public boolean isEnded() {
+        return endTick >= 0;
+    }
+
+    // Returns a copy of this recording that later inputs do not change
+    public InputRecording copy() {
+        InputRecording copy = new InputRecording();
+        copy.ticks = Arrays.copyOf(ticks, Math.max(size, 1));
+        copy.size = size;
+        copy.endTick = endTick;
+        return copy;
+    }
+
+    // Returns the recording as bytes, as stored in the score ledger
+    public byte[] encode() {
+        // A varint of a tick or tick difference takes at most 10 bytes
+        ByteBuffer buffer = ByteBuffer.allocate((size + 2) * 10);
+        ScoreArchive.putVarLong(buffer, size);
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            ScoreArchive.putVarLong(buffer, ticks[i] - previous);
+            previous = ticks[i];
+        }
+        // 0 for a game that had not ended, otherwise one more than the ticks after the last input
+        ScoreArchive.putVarLong(buffer, endTick < 0 ? 0 : endTick - previous + 1);
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /*
+      Reads a recording written by encode.
+      Bytes - the encoded recording, read from its position to its limit; an empty buffer has no inputs
+      Throws IllegalArgumentException if the bytes are not a recording
+    */
+    public static InputRecording decode(ByteBuffer bytes) {
+        InputRecording recording = new InputRecording();
+        if (!bytes.hasRemaining()) {
+            return recording;
+        }
+        try {
+            long count = ScoreArchive.getVarLong(bytes);
+            // Every input takes at least one byte, which bounds a damaged count
+            if (count < 0 || count > bytes.remaining()) {
+                throw new IllegalArgumentException("Bad input count " + count);
+            }
+            long tick = 0;
+            for (long i = 0; i < count; i++) {
+                long difference = ScoreArchive.getVarLong(bytes);
+                if (difference < 0) {
+                    throw new IllegalArgumentException("Bad input tick");
+                }
+                tick += difference;
+                recording.add(tick);
+            }
+            long end = ScoreArchive.getVarLong(bytes);
+            if (end < 0) {
+                throw new IllegalArgumentException("Bad end tick");
+            }
+            recording.endTick = end == 0 ? -1 : tick + end - 1;
+            return recording;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Recording is cut short", e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.droopychopper;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/*
+  The LockedFiles class opens the score files while holding their FileLock, for the ledger, the
+  archive and the text log that several game processes share.
+  Compaction replaces the text log with a new file while holding the lock of the old one, so a
+  process waiting for that lock would get it on a file that is no longer the log. The file is
+  therefore opened again until the file locked is still the one at the path.
+*/
+public class LockedFiles {
+    /*
+      Opens a file and locks all of it; the lock is released when the channel is closed.
+      Shared - true for a shared lock for reading, false for an exclusive lock for writing
+    */
+    static FileChannel open(Path path, boolean shared, OpenOption... options) throws IOException {
+        while (true) {
+            Object before = fileKey(path);
+            FileChannel channel = FileChannel.open(path, options);
+            try {
+                channel.lock(0, Long.MAX_VALUE, shared);
+                // Without file keys on this platform the file cannot be told apart, so it is taken as is
+                Object after = fileKey(path);
+                if (after == null || after.equals(before)) {
+                    return channel;
+                }
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            channel.close(); // Replaced, or created by this open, while waiting for the lock
+        }
+    }
+
+    // Returns the key telling the file at the path apart from other files, null if it is missing or has none
+    static Object fileKey(Path path) throws IOException {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+}
@@ -4,9 +4,10 @@ import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
-import javafx.scene.image.Image;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyCode;
 import javafx.scene.layout.HBox;
@@ -21,9 +22,8 @@ import javafx.scene.text.Text;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.geometry.Pos;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
+
+import java.util.concurrent.CompletableFuture;
 
 
 /*
@@ -37,12 +37,43 @@ public class MainApp extends Application {
     private MediaPlayer mediaPlayer;
     // Primary stage for the application
     private Stage primaryStage;
+    // The running game, told when the application closes
+    private DroopyChopper game;
+
+    /*
+      Creates the loading screen shown while the assets are loaded.
+      Progress - the bar showing the fraction of assets loaded
+      Return the root node of the loading screen
+    */
+    private Parent createSplash(ProgressBar progress) {
+        Pane root = new Pane();
+
+        // Background rectangle, the same as the menu's
+        Rectangle bg = new Rectangle(700, 500);
+        bg.setFill(Color.rgb(139, 0, 0));
+
+        Text loadingText = new Text("Loading...");
+        loadingText.setFont(new Font(20));
+        loadingText.setFill(Color.LIGHTBLUE);
+
+        progress.setPrefWidth(300);
+
+        VBox box = new VBox(20);
+        box.setAlignment(Pos.CENTER);
+        box.setLayoutX(200);
+        box.setLayoutY(220);
+        box.getChildren().addAll(loadingText, progress);
+
+        root.getChildren().addAll(bg, box);
+        return root;
+    }
 
     /*
       Creates the content for the game menu.
+      HighScore - the high score to display
       Return the root node containing all the menu elements
     */
-    private Parent createContent() {
+    private Parent createContent(int highScore) {
         Pane root = new Pane();
 
         // Background rectangle
@@ -50,25 +81,25 @@ public class MainApp extends Application {
         bg.setFill(Color.rgb(139, 0, 0));
 
         // Title image with fade-in animation
-        ImageView title = new ImageView(new Image(getClass().getResource("/images/title.png").toExternalForm()));
+        ImageView title = new ImageView(ImageCache.getShared().get("/images/title.png"));
         title.setFitWidth(350);
         title.setFitHeight(100);
         title.setOpacity(0);
 
         // Droopy Chopper image with fade-in animation
-        ImageView droopyChopper = new ImageView(new Image(getClass().getResource("/images/chopper2.gif").toExternalForm()));
+        ImageView droopyChopper = new ImageView(ImageCache.getShared().get("/images/chopper2.gif"));
         droopyChopper.setFitWidth(150);
         droopyChopper.setFitHeight(50);
         droopyChopper.setOpacity(0);
 
         // Start button image
-        ImageView startButton = new ImageView(new Image(getClass().getResource("/images/start.png").toExternalForm()));
+        ImageView startButton = new ImageView(ImageCache.getShared().get("/images/start.png"));
         startButton.setFitWidth(100);
         startButton.setFitHeight(50);
         startButton.setOnMouseClicked(e -> startGame());
 
         // Exit button image
-        ImageView exitButton = new ImageView(new Image(getClass().getResource("/images/exit.png").toExternalForm()));
+        ImageView exitButton = new ImageView(ImageCache.getShared().get("/images/exit.png"));
         exitButton.setFitWidth(100);
         exitButton.setFitHeight(50);
         exitButton.setOnMouseClicked(e -> System.exit(0));
@@ -84,7 +115,6 @@ public class MainApp extends Application {
         instructionText.setFill(Color.LIGHTBLUE);
 
         // Display high score
-        int highScore = getHighScore();
         Text highScoreText = new Text("High Score: " + highScore);
         highScoreText.setFont(new Font(20));
         highScoreText.setFill(Color.LIGHTBLUE);
@@ -142,26 +172,11 @@ public class MainApp extends Application {
 
 
     /*
-      Retrieves the high score from a log file.
+      Retrieves the high score from the score index, without reading the log file.
       Return the highest score found in the log file
     */
     private int getHighScore() {
-        int highScore = 0;
-        try (BufferedReader br = new BufferedReader(new FileReader("logs.txt"))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                if (line.startsWith("Score:")) {
-                    String[] parts = line.split("\\|");
-                    int score = Integer.parseInt(parts[0].trim().split(":")[1].trim());
-                    if (score > highScore) {
-                        highScore = score;
-                    }
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return highScore;
+        return ScoreIndex.getShared().getHighScore();
     }
 
     /*
@@ -171,7 +186,7 @@ public class MainApp extends Application {
         if (!GAME_SET) {
             GAME_SET = true;
             mediaPlayer.stop();
-            DroopyChopper game = new DroopyChopper();
+            game = new DroopyChopper();
             Stage gameStage = new Stage();
             primaryStage.close();
             try {
@@ -183,12 +198,33 @@ public class MainApp extends Application {
     }
 
     /*
-     Starts the application by initializing the primary stage and setting up the scene.
+     Starts the application: shows the loading screen while the assets and the high score are loaded
+     on worker threads, then shows the menu.
     */
     @Override
     public void start(Stage primaryStage) throws Exception {
         this.primaryStage = primaryStage;
-        Scene scene = new Scene(createContent());
+        ProgressBar progress = new ProgressBar(0);
+
+        primaryStage.setTitle("Droopy Chopper");
+        primaryStage.setScene(new Scene(createSplash(progress)));
+        primaryStage.setResizable(false);
+        primaryStage.show();
+
+        CompletableFuture<Integer> highScore = CompletableFuture.supplyAsync(this::getHighScore);
+        AssetLoader.getShared()
+                .loadAll(loaded -> Platform.runLater(
+                        () -> progress.setProgress(Math.max(progress.getProgress(), loaded))))
+                .thenCombine(highScore, (assets, score) -> score)
+                .whenComplete((score, error) -> Platform.runLater(() -> showMenu(error == null ? score : 0)));
+    }
+
+    /*
+     Shows the menu once the assets are loaded.
+     HighScore - the high score to display
+    */
+    private void showMenu(int highScore) {
+        Scene scene = new Scene(createContent(highScore));
 
         // Add key event handler to the scene
         scene.setOnKeyPressed(event -> {
@@ -197,10 +233,17 @@ public class MainApp extends Application {
             }
         });
 
-        primaryStage.setTitle("Droopy Chopper");
         primaryStage.setScene(scene);
-        primaryStage.setResizable(false);
-        primaryStage.show();
+    }
+
+    /*
+     Called when the application closes: lets the running game finish its work.
+    */
+    @Override
+    public void stop() {
+        if (game != null) {
+            game.stop();
+        }
     }
 
     // The main method to launch the application.
@@ -0,0 +1,27 @@
+package com.example.droopychopper;
+
+/*
+  The NullSoundBackend class plays nothing. It lets the game run where there is no audio device,
+  for example on a headless build machine, and stands in for sound files that could not be decoded.
+*/
+public class NullSoundBackend implements SoundManager.Backend {
+    // A voice that has already finished
+    private static final SoundManager.Voice FINISHED = new SoundManager.Voice() {
+        @Override
+        public boolean isPlaying() {
+            return false;
+        }
+
+        @Override
+        public void stop() {
+        }
+    };
+
+    // A sound whose voices finish at once
+    public static final SoundManager.Sample SILENCE = loop -> FINISHED;
+
+    @Override
+    public SoundManager.Sample load(String path) {
+        return SILENCE;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.droopychopper;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+  The PcmSoundBackend class decodes every sound to 16-bit PCM when it is loaded and plays it through
+  javax.sound clips that stay open, so starting a voice only rewinds a clip instead of decoding.
+  Each sound keeps one open clip per voice it has played at once, and reuses the clips that have finished.
+  javax.sound reads WAV, AIFF and AU files, not MP3, so a ".wav" file next to the requested file is used
+  when there is one.
+*/
+public class PcmSoundBackend implements SoundManager.Backend {
+    @Override
+    public SoundManager.Sample load(String path) throws Exception {
+        URL resource = find(path);
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(resource)) {
+            AudioFormat sourceFormat = source.getFormat();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, sourceFormat.getSampleRate(), 16,
+                    sourceFormat.getChannels(), sourceFormat.getChannels() * 2, sourceFormat.getSampleRate(), false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, source)) {
+                return new PcmSample(pcm, decoded.readAllBytes());
+            }
+        }
+    }
+
+    // Returns the WAV version of a sound file if there is one, otherwise the file itself
+    private static URL find(String path) throws IOException {
+        int dot = path.lastIndexOf('.');
+        URL wav = dot < 0 ? null : PcmSoundBackend.class.getResource(path.substring(0, dot) + ".wav");
+        URL resource = wav != null ? wav : PcmSoundBackend.class.getResource(path);
+        if (resource == null) {
+            throw new IOException("Sound not found: " + path);
+        }
+        return resource;
+    }
+
+    // A decoded sound and the clips opened to play it
+    private static class PcmSample implements SoundManager.Sample {
+        private final AudioFormat format;
+        private final byte[] data;
+        private final List<Line> lines = new ArrayList<>();
+
+        private PcmSample(AudioFormat format, byte[] data) {
+            this.format = format;
+            this.data = data;
+        }
+
+        @Override
+        public SoundManager.Voice play(boolean loop) {
+            Line line = freeLine();
+            if (line == null) {
+                return NullSoundBackend.SILENCE.play(loop);
+            }
+            return line.start(loop);
+        }
+
+        // Returns a clip that is not playing, opening a new one if all are busy; null if no clip can be opened
+        private Line freeLine() {
+            for (Line line : lines) {
+                if (line.current == null || !line.current.isPlaying()) {
+                    return line;
+                }
+            }
+            try {
+                Clip clip = AudioSystem.getClip();
+                clip.open(format, data, 0, data.length);
+                Line line = new Line(clip);
+                lines.add(line);
+                return line;
+            } catch (LineUnavailableException e) {
+                System.err.println("No audio line free: " + e.getMessage());
+                return null;
+            }
+        }
+    }
+
+    // An open clip and the voice it is playing
+    private static class Line {
+        private final Clip clip;
+        private PcmVoice current;
+
+        private Line(Clip clip) {
+            this.clip = clip;
+        }
+
+        private PcmVoice start(boolean loop) {
+            clip.stop();
+            clip.setFramePosition(0);
+            current = new PcmVoice(this, loop);
+            if (loop) {
+                clip.loop(Clip.LOOP_CONTINUOUSLY);
+            } else {
+                clip.start();
+            }
+            return current;
+        }
+    }
+
+    // One playback of a clip; it stops playing when the clip ends, is stopped, or starts another voice
+    private static class PcmVoice implements SoundManager.Voice {
+        private final Line line;
+        private final boolean loop;
+        private boolean stopped;
+
+        private PcmVoice(Line line, boolean loop) {
+            this.line = line;
+            this.loop = loop;
+        }
+
+        @Override
+        public boolean isPlaying() {
+            if (stopped || line.current != this) {
+                return false;
+            }
+            return loop || line.clip.getFramePosition() < line.clip.getFrameLength();
+        }
+
+        @Override
+        public void stop() {
+            if (line.current == this) {
+                line.clip.stop();
+            }
+            stopped = true;
+        }
+    }
+}
@@ -1,12 +1,21 @@
 package com.example.droopychopper;
 
 /* The Pipe Class represents a pipe in the game, which is either facing up and facing down
-   It contains a Sprite for the pipe, its position, and its dimensions.
+   It contains a Body for the pipe, its position, and its dimensions.
+   The pipe image is drawn by the renderer, so this class has no JavaFX types.
  */
 
 public class Pipe {
-    // Sprite object representing the pipe image
-    private Sprite pipe;
+    // Width of every pipe
+    public static final int PIPE_WIDTH = 60;
+    // X position where new pipes appear, just off the right edge of the screen
+    public static final int SPAWN_X = 650;
+
+    // Body object representing the pipe in the game world
+    private Body pipe;
+
+    // Whether the pipe stands on the floor (up) or hangs from the top (down)
+    private boolean isFaceUp;
 
     // X and Y coordinates of the pipe's position
     private double locationX;
@@ -18,32 +27,44 @@ public class Pipe {
 
     /*
        Constructor for the Pipe class.
-       Initializes a pipe sprite, sets its dimensions, and positions it on the screen.
+       Initializes a pipe body, sets its dimensions, and positions it on the screen.
        isFaceUp - boolean indicating whether the pipe is facing up or down
        Height - the height of the pipe
 
      */
     public Pipe(boolean isFaceUp, int height) {
-        this.pipe = new Sprite();
+        this.pipe = new Body();
+        this.isFaceUp = isFaceUp;
+        reset(height);
+    }
 
-        // Resize the image based on the pipe orientation (up or down)
-        this.pipe.resizeImage(isFaceUp ? "/images/up_jar.png" : "/images/down_jar.png", 60, height);
-        this.width = 60;
+    /*
+       Reuses this pipe with a new height, back at its starting position off the right of the screen.
+       Height - the new height of the pipe
+     */
+    public void reset(int height) {
+        this.width = PIPE_WIDTH;
         this.height = height;
 
         // Set the initial X and Y position of the pipe
-        this.locationX = 650;
-        this.locationY = isFaceUp? 600 - height : 0;
+        this.locationX = SPAWN_X;
+        this.locationY = isFaceUp ? GameWorld.FLOOR_Y - height : 0;
 
-        // Set the pipe's position on the screen
+        // Set the pipe's size and position on the screen
+        this.pipe.setSize(width, height);
         this.pipe.setPositionXY(locationX, locationY);
     }
 
     /*
-        Getter for the pipe sprite.
-        Return the Sprite object representing the pipe
+        Getter for the pipe body.
+        Return the Body object representing the pipe
      */
-    public Sprite getPipe() {
+    public Body getPipe() {
         return pipe;
     }
+
+    // Returns true if the pipe stands on the floor, false if it hangs from the top
+    public boolean isFaceUp() {
+        return isFaceUp;
+    }
 }
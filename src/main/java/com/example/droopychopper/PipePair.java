@@ -0,0 +1,75 @@
+package com.example.droopychopper;
+
+/*
+  The PipePair class holds the two pipes of one gap: the pipe standing on the floor and the pipe
+  hanging from the top. Pairs are reused by the PipePool instead of being created for every gap.
+*/
+public class PipePair {
+    // Pipe standing on the floor
+    private final Pipe upPipe = new Pipe(true, 0);
+    // Pipe hanging from the top of the screen
+    private final Pipe downPipe = new Pipe(false, 0);
+
+    /*
+      Moves both pipes back to the right of the screen with a new gap.
+      UpHeight - the height of the pipe standing on the floor, the hanging pipe fills the rest
+    */
+    public void reset(int upHeight) {
+        reset(upHeight, GameWorld.PIPE_PAIR_HEIGHT - upHeight);
+    }
+
+    /*
+      Moves both pipes back to the right of the screen with a gap of any height.
+      UpHeight, DownHeight - the heights of the pipe standing on the floor and the pipe hanging from the top
+    */
+    public void reset(int upHeight, int downHeight) {
+        upPipe.reset(upHeight);
+        downPipe.reset(downHeight);
+    }
+
+    // Moves both pipes horizontally by the given distance
+    public void shiftX(double distance) {
+        Body up = upPipe.getPipe();
+        Body down = downPipe.getPipe();
+        up.setPositionXY(up.getPositionX() + distance, up.getPositionY());
+        down.setPositionXY(down.getPositionX() + distance, down.getPositionY());
+    }
+
+    // Sets the velocity of both pipes
+    public void setVelocity(double velocityX, double velocityY) {
+        upPipe.getPipe().setVelocity(velocityX, velocityY);
+        downPipe.getPipe().setVelocity(velocityX, velocityY);
+    }
+
+    // Moves both pipes based on their velocity and the given time
+    public void update(double time) {
+        upPipe.getPipe().update(time);
+        downPipe.getPipe().update(time);
+    }
+
+    // Remembers the position of both pipes as the start of a new tick
+    public void storePreviousPosition() {
+        upPipe.getPipe().storePreviousPosition();
+        downPipe.getPipe().storePreviousPosition();
+    }
+
+    // Returns the pipe standing on the floor
+    public Pipe getUpPipe() {
+        return upPipe;
+    }
+
+    // Returns the pipe hanging from the top of the screen
+    public Pipe getDownPipe() {
+        return downPipe;
+    }
+
+    // Returns the X position of the pair, both pipes share it
+    public double getPositionX() {
+        return upPipe.getPipe().getPositionX();
+    }
+
+    // Returns the right edge of the pair
+    public double getMaxX() {
+        return upPipe.getPipe().getMaxX();
+    }
+}
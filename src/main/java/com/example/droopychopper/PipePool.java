@@ -0,0 +1,142 @@
+package com.example.droopychopper;
+
+/*
+  The PipePool class is a fixed-capacity ring of reusable pipe pairs, ordered from the oldest
+  (leftmost) to the newest (rightmost) pair. A pair that scrolls off the screen is recycled in
+  place for the next gap, so spawning obstacles allocates nothing once the pool is created.
+  Because the pairs stay sorted by X, the pool can also answer which pairs lie near a given X
+  without looking at all of them.
+*/
+public class PipePool {
+    // Number of pairs in the default pool, the screen never shows more than two pairs
+    public static final int DEFAULT_CAPACITY = 4;
+
+    // All pairs of the pool, created once
+    private final PipePair[] pairs;
+    // Index of the oldest pair in use
+    private int head;
+    // Number of pairs in use
+    private int size;
+
+    // Index of the pair found by the last search, where the next search starts
+    private int searchIndex;
+
+    // Metrics about the use of the pool
+    private int highWaterMark;
+    private long spawnCount, recycleCount;
+
+    // Creates a pool with the default capacity
+    public PipePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    // Creates a pool holding at most the given number of pairs
+    public PipePool(int capacity) {
+        pairs = new PipePair[capacity];
+        for (int i = 0; i < capacity; i++) {
+            pairs[i] = new PipePair();
+        }
+    }
+
+    /*
+      Takes the next free pair and places it at the right of the screen with a new gap.
+      When every pair is in use the oldest pair is recycled first.
+      UpHeight - the height of the pipe standing on the floor
+      Return the pair, now the newest one of the pool
+    */
+    public PipePair spawn(int upHeight) {
+        return spawn(upHeight, GameWorld.PIPE_PAIR_HEIGHT - upHeight);
+    }
+
+    /*
+      Takes the next free pair and places it at the right of the screen with a new gap of any height.
+      UpHeight, DownHeight - the heights of the pipe standing on the floor and the pipe hanging from the top
+      Return the pair, now the newest one of the pool
+    */
+    public PipePair spawn(int upHeight, int downHeight) {
+        if (size == pairs.length) {
+            recycleOldest();
+        }
+        PipePair pair = pairs[(head + size) % pairs.length];
+        pair.reset(upHeight, downHeight);
+        size++;
+        spawnCount++;
+        highWaterMark = Math.max(highWaterMark, size);
+        return pair;
+    }
+
+    // Gives the oldest pair back to the pool
+    public void recycleOldest() {
+        if (size > 0) {
+            head = (head + 1) % pairs.length;
+            size--;
+            recycleCount++;
+            searchIndex = Math.max(searchIndex - 1, 0);
+        }
+    }
+
+    // Gives every pair back to the pool, used when a new game starts
+    public void clear() {
+        head = 0;
+        size = 0;
+        searchIndex = 0;
+    }
+
+    /*
+      Returns the index of the oldest pair whose right edge is past the given X, or size() if there is none.
+      The search continues from where the previous one stopped. Pairs only move left and the chopper
+      stays in the same column, so it only moves over a pair or two per tick, however many are in use.
+    */
+    public int firstEndingAfter(double x) {
+        searchIndex = Math.min(searchIndex, size);
+        while (searchIndex > 0 && get(searchIndex - 1).getMaxX() > x) {
+            searchIndex--;
+        }
+        while (searchIndex < size && get(searchIndex).getMaxX() <= x) {
+            searchIndex++;
+        }
+        return searchIndex;
+    }
+
+    /*
+      Returns a pair in use, from the oldest (index 0) to the newest (index size() - 1).
+    */
+    public PipePair get(int index) {
+        return pairs[(head + index) % pairs.length];
+    }
+
+    // Returns the oldest pair in use
+    public PipePair getFirst() {
+        return get(0);
+    }
+
+    // Returns the newest pair in use
+    public PipePair getLast() {
+        return get(size - 1);
+    }
+
+    // Returns the number of pairs in use (the occupancy of the pool)
+    public int size() {
+        return size;
+    }
+
+    // Returns the number of pairs the pool holds
+    public int getCapacity() {
+        return pairs.length;
+    }
+
+    // Returns the largest number of pairs that were in use at the same time
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    // Returns the number of pairs handed out since the pool was created
+    public long getSpawnCount() {
+        return spawnCount;
+    }
+
+    // Returns the number of pairs given back to the pool since it was created
+    public long getRecycleCount() {
+        return recycleCount;
+    }
+}
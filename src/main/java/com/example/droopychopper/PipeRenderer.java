@@ -0,0 +1,90 @@
+package com.example.droopychopper;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+
+/*
+  The PipeRenderer class draws pipes of any height from one decoded texture per orientation.
+  A pipe is drawn as the cap of the jar (its opening) plus the body of the jar repeated as often as
+  needed, so no image is scaled or decoded when a pipe with a new height appears.
+*/
+public class PipeRenderer {
+    // Layout of the pipe textures, shared with the collision masks
+    private static final int TEXTURE_WIDTH = PipeSkin.TEXTURE_WIDTH;
+    private static final int TEXTURE_HEIGHT = PipeSkin.TEXTURE_HEIGHT;
+    private static final int CAP_HEIGHT = PipeSkin.CAP_HEIGHT;
+    private static final int BODY_HEIGHT = PipeSkin.BODY_HEIGHT;
+
+    // Paths of the pipe textures
+    private static final String UP_TEXTURE = "/images/up_jar.png";
+    private static final String DOWN_TEXTURE = "/images/down_jar.png";
+
+    // Textures for pipes standing on the floor (cap on top) and hanging from the top (cap at the bottom)
+    private final Image upTexture;
+    private final Image downTexture;
+
+    // Loads both pipe textures from the shared image cache
+    public PipeRenderer() {
+        upTexture = ImageCache.getShared().get(UP_TEXTURE, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+        downTexture = ImageCache.getShared().get(DOWN_TEXTURE, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+    }
+
+    // Returns the collision mask of the texture for pipes standing on the floor
+    public CollisionMask getUpMask() {
+        return ImageCache.getShared().getMask(UP_TEXTURE, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+    }
+
+    // Returns the collision mask of the texture for pipes hanging from the top
+    public CollisionMask getDownMask() {
+        return ImageCache.getShared().getMask(DOWN_TEXTURE, TEXTURE_WIDTH, TEXTURE_HEIGHT);
+    }
+
+    /*
+      Draws a pipe between its previous and current position.
+      Alpha - how far the frame is between the previous and the current tick, from 0 to 1
+    */
+    public void render(GraphicsContext gc, Pipe pipe, double alpha) {
+        Body body = pipe.getPipe();
+        render(gc, pipe.isFaceUp(), body.getInterpolatedX(alpha), body.getInterpolatedY(alpha), body.getHeight());
+    }
+
+    // Draws a pipe of the given height at a position, for example one copied into a WorldSnapshot
+    public void render(GraphicsContext gc, boolean faceUp, double x, double y, double height) {
+        if (faceUp) {
+            renderFaceUp(gc, x, y, height);
+        } else {
+            renderFaceDown(gc, x, y, height);
+        }
+    }
+
+    // Draws the cap at the top of the pipe, then repeats the body down to the floor
+    private void renderFaceUp(GraphicsContext gc, double x, double y, double height) {
+        double cap = Math.min(CAP_HEIGHT, height);
+        gc.drawImage(upTexture, 0, 0, TEXTURE_WIDTH, cap, x, y, TEXTURE_WIDTH, cap);
+
+        double top = y + cap;
+        double remaining = height - cap;
+        while (remaining > 0) {
+            double tile = Math.min(BODY_HEIGHT, remaining);
+            gc.drawImage(upTexture, 0, CAP_HEIGHT, TEXTURE_WIDTH, tile, x, top, TEXTURE_WIDTH, tile);
+            top += tile;
+            remaining -= tile;
+        }
+    }
+
+    // Draws the cap at the bottom of the pipe, then repeats the body up to the top of the screen
+    private void renderFaceDown(GraphicsContext gc, double x, double y, double height) {
+        double cap = Math.min(CAP_HEIGHT, height);
+        double bottom = y + height - cap;
+        gc.drawImage(downTexture, 0, TEXTURE_HEIGHT - cap, TEXTURE_WIDTH, cap, x, bottom, TEXTURE_WIDTH, cap);
+
+        double remaining = height - cap;
+        while (remaining > 0) {
+            double tile = Math.min(BODY_HEIGHT, remaining);
+            bottom -= tile;
+            gc.drawImage(downTexture, 0, TEXTURE_HEIGHT - CAP_HEIGHT - tile, TEXTURE_WIDTH, tile,
+                    x, bottom, TEXTURE_WIDTH, tile);
+            remaining -= tile;
+        }
+    }
+}
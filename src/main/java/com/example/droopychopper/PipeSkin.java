@@ -0,0 +1,38 @@
+package com.example.droopychopper;
+
+/*
+  The PipeSkin class describes how a pipe of any height is cut from its texture: the cap (the
+  opening of the jar) at the open end, and the body of the jar repeated for the rest of the height.
+  PipeRenderer uses it to draw pipes and GameWorld uses it to find which texture row of the
+  collision mask lies at a given row of a pipe. It has no JavaFX types.
+*/
+public class PipeSkin {
+    // Size of the pipe textures, as tall as the tallest pipe so most pipes need a single body tile
+    public static final int TEXTURE_WIDTH = Pipe.PIPE_WIDTH;
+    public static final int TEXTURE_HEIGHT = 410;
+    // Height of the cap at the open end of the jar, the rest of the texture is the repeated body
+    public static final int CAP_HEIGHT = 30;
+    public static final int BODY_HEIGHT = TEXTURE_HEIGHT - CAP_HEIGHT;
+
+    /*
+      Returns the texture row drawn at a row of a pipe.
+      IsFaceUp - true for a pipe standing on the floor (cap on top), false for a hanging pipe (cap at the bottom)
+      LocalY - the row inside the pipe, 0 being its top row
+      Height - the height of the pipe
+    */
+    public static int textureRow(boolean isFaceUp, int localY, int height) {
+        if (isFaceUp) {
+            if (localY < CAP_HEIGHT) {
+                return localY;
+            }
+            return CAP_HEIGHT + (localY - CAP_HEIGHT) % BODY_HEIGHT;
+        }
+
+        // Hanging pipes are cut from the bottom of the texture upwards
+        int fromBottom = height - 1 - localY;
+        if (fromBottom < CAP_HEIGHT) {
+            return TEXTURE_HEIGHT - 1 - fromBottom;
+        }
+        return TEXTURE_HEIGHT - CAP_HEIGHT - 1 - (fromBottom - CAP_HEIGHT) % BODY_HEIGHT;
+    }
+}
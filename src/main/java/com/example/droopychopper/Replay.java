@@ -0,0 +1,126 @@
+package com.example.droopychopper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/*
+  The Replay class plays recorded games again without a window, as fast as the simulation runs,
+  to check that a saved score is the score its seed and inputs really make.
+  Each recorded input is given to the world right before the tick it was made on, as in the game
+  window, so the replayed world goes through exactly the same ticks as the recorded one.
+  The world must collide with the same masks as the recorded game, otherwise close passes may end differently.
+*/
+public class Replay {
+    // Ticks simulated after the last input of a recording that never ended, enough to fall to the floor
+    private static final long MAX_TAIL_TICKS = 60 * 120;
+
+    // The outcome of a replayed game
+    public record Result(int score, long ticks, boolean gameOver) {
+    }
+
+    private final CollisionMask[] chopperMasks;
+    private final CollisionMask upPipeMask, downPipeMask;
+
+    /*
+      Creates a replay that collides like the game window.
+      ChopperMasks, UpPipeMask, DownPipeMask - the masks given to GameWorld.setCollisionMasks, null to collide with boxes only
+    */
+    public Replay(CollisionMask[] chopperMasks, CollisionMask upPipeMask, CollisionMask downPipeMask) {
+        this.chopperMasks = chopperMasks;
+        this.upPipeMask = upPipeMask;
+        this.downPipeMask = downPipeMask;
+    }
+
+    // Creates a replay with the masks the game window uses, read from the shared image cache
+    public static Replay withGameMasks() {
+        PipeRenderer pipes = new PipeRenderer();
+        return new Replay(new Chopper().getFrameMasks(), pipes.getUpMask(), pipes.getDownMask());
+    }
+
+    // Plays a recorded game again and returns how it ended
+    public Result play(long seed, InputRecording inputs) {
+        GameWorld world = new GameWorld(GameWorld.TICK_SECONDS, seed);
+        world.setCollisionMasks(chopperMasks, upPipeMask, downPipeMask);
+        return play(world, inputs);
+    }
+
+    /*
+      Plays the inputs of a recording in a world that has just been reset with the recording's seed.
+      Stops when the game ends, at the recorded end tick, or a while after the last input if the
+      recording never ended.
+    */
+    public static Result play(GameWorld world, InputRecording inputs) {
+        long lastTick = inputs.isEnded()
+                ? inputs.getEndTick()
+                : (inputs.size() == 0 ? 0 : inputs.getTick(inputs.size() - 1)) + MAX_TAIL_TICKS;
+        int next = 0;
+        while (!world.isGameOver() && world.getTickCount() < lastTick) {
+            next = applyInputs(world, inputs, next);
+            world.tick();
+        }
+        return new Result(world.getTotalScore(), world.getTickCount(), world.isGameOver());
+    }
+
+    /*
+      Gives the world every input recorded for its next tick.
+      Next - the index of the first input not given yet
+      Return the index of the first input still to give
+    */
+    public static int applyInputs(GameWorld world, InputRecording inputs, int next) {
+        while (next < inputs.size() && inputs.getTick(next) <= world.getTickCount()) {
+            world.onUserInput();
+            next++;
+        }
+        return next;
+    }
+
+    // Returns true if the recorded game ends, at its recorded end tick, with the given score
+    public boolean verify(long seed, InputRecording inputs, int score) {
+        Result result = play(seed, inputs);
+        return result.gameOver() && result.score() == score
+                && (!inputs.isEnded() || result.ticks() == inputs.getEndTick());
+    }
+
+    /*
+      Replays every score of a ledger that was saved with its inputs and prints the ones that do not match.
+      Args - the ledger path, optional
+    */
+    public static void main(String[] args) throws IOException {
+        ScoreLedger ledger = new ScoreLedger(Path.of(args.length > 0 ? args[0] : ScoreLedger.LEDGER_FILE));
+        Replay replay = withGameMasks();
+        long[] counts = new long[4]; // Replayed, mismatched, unreadable, ticks
+        long start = System.nanoTime();
+        ledger.readAll(new ScoreLedger.Visitor() {
+            @Override
+            public void onScore(int score, long time) {
+            }
+
+            @Override
+            public void onScore(int score, long time, long seed, ByteBuffer bytes) {
+                if (!bytes.hasRemaining()) {
+                    return;
+                }
+                InputRecording inputs;
+                try {
+                    inputs = InputRecording.decode(bytes);
+                } catch (IllegalArgumentException e) {
+                    counts[2]++;
+                    return;
+                }
+                Result result = replay.play(seed, inputs);
+                counts[0]++;
+                counts[3] += result.ticks();
+                if (!result.gameOver() || result.score() != score) {
+                    counts[1]++;
+                    System.out.printf("Seed %x at %s: saved score %d, replayed %d%n", seed,
+                            new ScoreLedger.Entry(score, time).getLocalTime(), score, result.score());
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        double played = counts[3] * GameWorld.TICK_SECONDS;
+        System.out.printf("Replayed %d games (%d mismatched, %d unreadable): %.0f s of play in %.3f s, %.0f times real time%n",
+                counts[0], counts[1], counts[2], played, seconds, seconds > 0 ? played / seconds : 0);
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.droopychopper;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/*
+  The ScoreAnalytics class computes statistics over the whole score history: plays per day, a score
+  histogram, percentiles and streaks. The history is the score archive followed by the text log;
+  log lines of the days already archived are skipped, as a compaction archives the games of the
+  ledger before it trims the same games from the log.
+  The log is memory-mapped and parsed byte by byte, so lines are never turned into strings and the
+  log never has to fit in memory. Like the score index, it remembers how far it has read of both
+  files and only reads what was appended since the last refresh. Analytics of the recent days only
+  skip the archive blocks whose footer shows they are older.
+*/
+public class ScoreAnalytics {
+    // Largest part of the log mapped at once
+    private static final int WINDOW_SIZE = 64 * 1024 * 1024;
+    // Scores above this are counted in the last histogram bucket
+    private static final int MAX_TRACKED_SCORE = 1 << 16;
+
+    // Parts of a log line, for example "Score: 12 | Time: 2024-07-12 21:31:13"
+    private static final byte[] SCORE_PREFIX = "Score:".getBytes();
+    private static final byte[] TIME_PREFIX = "Time:".getBytes();
+    // Length of the date at the start of the time, "yyyy-MM-dd"
+    private static final int DATE_LENGTH = 10;
+
+    private final Path logPath;
+    private final ScoreArchive archive;
+    // First day counted, in days since 1970-01-01, Long.MIN_VALUE to count every game
+    private final long sinceDay;
+    // Last day with archived games, whose log lines are already counted from the archive
+    private long archivedThroughDay = Long.MIN_VALUE;
+
+    // Number of bytes of the log read so far, always at the end of a line
+    private long coveredLength;
+    // Number of bytes of the archive read so far, always at the end of a block
+    private long archiveCoveredLength;
+    // Size of the archive and key of the log file at the last refresh, to notice a compaction
+    private long archiveSize;
+    private Object logKey;
+
+    // Totals over all scores
+    private long count, sum;
+    private int maxScore;
+    // Number of games for each score, grown as higher scores appear
+    private long[] histogram = new long[64];
+
+    // Plays per day, keyed by days since 1970-01-01; the day being read is kept apart until it changes
+    private final TreeMap<Long, Long> playsPerDay = new TreeMap<>();
+    private long currentDay = Long.MIN_VALUE;
+    private long currentDayPlays;
+
+    // Consecutive games that scored at least one point: the run in progress and the longest one
+    private long scoringRun, longestScoringRun;
+
+    // Creates analytics over the given text log without an archive; nothing is read until the first refresh
+    public ScoreAnalytics(Path logPath) {
+        this(logPath, null);
+    }
+
+    // Creates analytics over the given archive and text log; nothing is read until the first refresh
+    public ScoreAnalytics(Path logPath, ScoreArchive archive) {
+        this(logPath, archive, null);
+    }
+
+    /*
+      Creates analytics over the games of the given archive and text log made from a day on;
+      nothing is read until the first refresh.
+      Since - the first day counted, null to count every game; games without a date are not counted
+    */
+    public ScoreAnalytics(Path logPath, ScoreArchive archive, LocalDate since) {
+        this.logPath = logPath;
+        this.archive = archive;
+        this.sinceDay = since == null ? Long.MIN_VALUE : since.toEpochDay();
+    }
+
+    /*
+      Reads the blocks appended to the archive and the lines appended to the log since the last refresh.
+      The archive only grows when a compaction moves scores out of the log and replaces the log file,
+      so when the archive size or the log file changed, or the log got shorter, everything is read
+      again from the start; the archive part of that is cheap, since it is compact.
+    */
+    public synchronized void refresh() throws IOException {
+        long size = logSize();
+        Object key = LockedFiles.fileKey(logPath);
+        long currentArchiveSize = archive == null ? 0 : archive.size();
+        if (size < coveredLength || currentArchiveSize != archiveSize || !Objects.equals(key, logKey)) {
+            clear();
+            archiveSize = currentArchiveSize;
+            logKey = key;
+            long newest = archive == null ? Long.MIN_VALUE : archive.getNewestTime();
+            archivedThroughDay = newest == Long.MIN_VALUE ? Long.MIN_VALUE : Math.floorDiv(newest, 86400);
+        }
+        if (archive != null) {
+            long fromTime = sinceDay == Long.MIN_VALUE ? Long.MIN_VALUE : sinceDay * 86400;
+            archiveCoveredLength = archive.readSince(archiveCoveredLength, fromTime,
+                    (score, time) -> addScore(score, time == 0 ? Long.MIN_VALUE : Math.floorDiv(time, 86400)));
+        }
+        if (coveredLength >= size) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            size = channel.size();
+            while (coveredLength < size) {
+                long length = Math.min(WINDOW_SIZE, size - coveredLength);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, coveredLength, length);
+                int parsed = parseLines(window);
+                if (parsed == 0) {
+                    if (length == WINDOW_SIZE) {
+                        throw new IOException("Line longer than " + WINDOW_SIZE + " bytes in " + logPath);
+                    }
+                    break; // The last line is not complete yet
+                }
+                coveredLength += parsed;
+            }
+        }
+    }
+
+    // Returns the size of the log in bytes, 0 if it does not exist
+    private long logSize() throws IOException {
+        try {
+            return Files.size(logPath);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // Forgets everything read so far
+    private void clear() {
+        coveredLength = 0;
+        archiveCoveredLength = 0;
+        count = 0;
+        sum = 0;
+        maxScore = 0;
+        Arrays.fill(histogram, 0);
+        playsPerDay.clear();
+        currentDay = Long.MIN_VALUE;
+        currentDayPlays = 0;
+        scoringRun = 0;
+        longestScoringRun = 0;
+    }
+
+    // Parses the complete lines in the buffer, returning the number of bytes they take up
+    private int parseLines(MappedByteBuffer buffer) {
+        int limit = buffer.limit();
+        int lineStart = 0;
+        for (int i = 0; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                parseLine(buffer, lineStart, i);
+                lineStart = i + 1;
+            }
+        }
+        return lineStart;
+    }
+
+    // Parses one line, from start up to the end (exclusive), ignoring lines that hold no score
+    private void parseLine(MappedByteBuffer buffer, int start, int end) {
+        if (!startsWith(buffer, start, end, SCORE_PREFIX)) {
+            return;
+        }
+        int i = skipSpaces(buffer, start + SCORE_PREFIX.length, end);
+        int digitsStart = i;
+        int score = 0;
+        while (i < end && i - digitsStart < 9 && isDigit(buffer.get(i))) {
+            score = score * 10 + (buffer.get(i) - '0');
+            i++;
+        }
+        if (i == digitsStart) {
+            return;
+        }
+
+        long day = Long.MIN_VALUE;
+        // Look for the time after the score, for example " | Time: 2024-07-12 21:31:13"
+        for (; i + TIME_PREFIX.length <= end; i++) {
+            if (startsWith(buffer, i, end, TIME_PREFIX)) {
+                day = parseDay(buffer, skipSpaces(buffer, i + TIME_PREFIX.length, end), end);
+                break;
+            }
+        }
+        if (archivedThroughDay != Long.MIN_VALUE && day <= archivedThroughDay) {
+            return; // Archived by a compaction that did not trim the log yet
+        }
+        if (sinceDay != Long.MIN_VALUE && day < sinceDay) {
+            return;
+        }
+        addScore(score, day);
+    }
+
+    // Returns the day of a "yyyy-MM-dd" date as days since 1970-01-01, or Long.MIN_VALUE if it is not a date
+    private static long parseDay(MappedByteBuffer buffer, int start, int end) {
+        if (end - start < DATE_LENGTH || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+            return Long.MIN_VALUE;
+        }
+        int year = parseNumber(buffer, start, 4);
+        int month = parseNumber(buffer, start + 5, 2);
+        int day = parseNumber(buffer, start + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return Long.MIN_VALUE;
+        }
+        return epochDay(year, month, day);
+    }
+
+    // Returns the number in the given digits, or -1 if one of them is not a digit
+    private static int parseNumber(MappedByteBuffer buffer, int start, int digits) {
+        int value = 0;
+        for (int i = start; i < start + digits; i++) {
+            byte b = buffer.get(i);
+            if (!isDigit(b)) {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    // Returns the days since 1970-01-01 of a date, without creating a LocalDate for every line
+    private static long epochDay(int year, int month, int day) {
+        // Count years from March, so the leap day is the last day of the year
+        long y = month <= 2 ? year - 1 : year;
+        long era = Math.floorDiv(y, 400);
+        long yearOfEra = y - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Adds one game to the aggregates
+    private void addScore(int score, long day) {
+        count++;
+        sum += score;
+        maxScore = Math.max(maxScore, score);
+
+        int bucket = Math.min(score, MAX_TRACKED_SCORE);
+        if (bucket >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.min(Math.max(histogram.length * 2, bucket + 1),
+                    MAX_TRACKED_SCORE + 1));
+        }
+        histogram[bucket]++;
+
+        if (day != currentDay) {
+            flushCurrentDay();
+            currentDay = day;
+        }
+        currentDayPlays++;
+
+        scoringRun = score > 0 ? scoringRun + 1 : 0;
+        longestScoringRun = Math.max(longestScoringRun, scoringRun);
+    }
+
+    // Moves the plays of the day being read into the map of plays per day
+    private void flushCurrentDay() {
+        if (currentDay != Long.MIN_VALUE && currentDayPlays > 0) {
+            playsPerDay.merge(currentDay, currentDayPlays, Long::sum);
+        }
+        currentDayPlays = 0;
+    }
+
+    private static boolean startsWith(MappedByteBuffer buffer, int start, int end, byte[] prefix) {
+        if (end - start < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int skipSpaces(MappedByteBuffer buffer, int start, int end) {
+        while (start < end && buffer.get(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    // Returns the number of games in the log
+    public synchronized long getCount() {
+        return count;
+    }
+
+    // Returns the highest score, or 0 if no game has been logged
+    public synchronized int getHighScore() {
+        return maxScore;
+    }
+
+    // Returns the average score, or 0 if no game has been logged
+    public synchronized double getAverageScore() {
+        return count == 0 ? 0 : sum / (double) count;
+    }
+
+    /*
+      Returns the score that the given percentage of games stay at or below.
+      Percentile - from 0 to 100, for example 50 for the median
+    */
+    public synchronized int getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int score = 0; score < histogram.length; score++) {
+            seen += histogram[score];
+            if (seen >= rank) {
+                return score;
+            }
+        }
+        return maxScore;
+    }
+
+    // Returns the number of games for each score; the last entry also counts every higher score
+    public synchronized long[] getHistogram() {
+        return Arrays.copyOf(histogram, Math.min(maxScore, MAX_TRACKED_SCORE) + 1);
+    }
+
+    // Returns the number of games played on each day, in date order; lines without a date are left out
+    public synchronized Map<LocalDate, Long> getPlaysPerDay() {
+        TreeMap<LocalDate, Long> days = new TreeMap<>();
+        for (Map.Entry<Long, Long> entry : playsPerDay.entrySet()) {
+            days.put(LocalDate.ofEpochDay(entry.getKey()), entry.getValue());
+        }
+        if (currentDay != Long.MIN_VALUE && currentDayPlays > 0) {
+            days.merge(LocalDate.ofEpochDay(currentDay), currentDayPlays, Long::sum);
+        }
+        return days;
+    }
+
+    // Returns the largest number of days in a row with at least one game
+    public synchronized int getLongestDayStreak() {
+        int longest = 0;
+        int streak = 0;
+        LocalDate previous = null;
+        for (LocalDate day : getPlaysPerDay().keySet()) {
+            streak = previous != null && previous.plusDays(1).equals(day) ? streak + 1 : 1;
+            longest = Math.max(longest, streak);
+            previous = day;
+        }
+        return longest;
+    }
+
+    // Returns the largest number of games in a row that scored at least one point
+    public synchronized long getLongestScoringStreak() {
+        return longestScoringRun;
+    }
+
+    /*
+      Prints a summary of a score history.
+      Args - the path of the log and of the archive, logs.txt and scores.archive if not given,
+      and the number of days to summarize, every day if not given
+    */
+    public static void main(String[] args) throws IOException {
+        LocalDate since = args.length > 2 ? LocalDate.now().minusDays(Integer.parseInt(args[2]) - 1) : null;
+        ScoreAnalytics analytics = new ScoreAnalytics(Path.of(args.length > 0 ? args[0] : ScoreIndex.LOG_FILE),
+                new ScoreArchive(Path.of(args.length > 1 ? args[1] : ScoreArchive.ARCHIVE_FILE)), since);
+        long start = System.nanoTime();
+        analytics.refresh();
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("Games: %d, read in %.1f ms%n", analytics.getCount(), elapsed / 1_000_000.0);
+        System.out.printf("High score: %d, average: %.2f%n", analytics.getHighScore(), analytics.getAverageScore());
+        System.out.printf("Percentiles: p50 %d, p90 %d, p99 %d%n", analytics.getPercentile(50),
+                analytics.getPercentile(90), analytics.getPercentile(99));
+        System.out.printf("Longest day streak: %d, longest scoring streak: %d%n",
+                analytics.getLongestDayStreak(), analytics.getLongestScoringStreak());
+        System.out.println("Plays per day:");
+        analytics.getPlaysPerDay().forEach((day, plays) -> System.out.println("  " + day + ": " + plays));
+    }
+}
@@ -0,0 +1,482 @@
+package com.example.droopychopper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.zip.CRC32;
+
+/*
+  The ScoreArchive class stores old scores in compact blocks, so the score files do not grow forever.
+  A block holds up to BLOCK_ENTRIES scores as two columns: the times as varint differences from the
+  previous time, then the scores as varints, about 3 bytes per game instead of a ledger record of
+  30 bytes and more plus a text log line of about 55.
+  Each block ends with a footer holding the lowest and highest time and score and a checksum, so
+  readers can skip whole blocks: the score index decodes only the blocks that can hold a best score,
+  and analytics over recent days skip the older blocks.
+  The compact method moves the older games of the score ledger into the archive, keeping only their
+  score and time, and drops the same games from the text log. The history of scores is then the
+  archive followed by the ledger, or followed by the text log for the analytics reading it.
+*/
+public class ScoreArchive {
+    // File used by the game
+    public static final String ARCHIVE_FILE = "scores.archive";
+    // Most scores in one block
+    public static final int BLOCK_ENTRIES = 4096;
+    // Days of scores the compaction leaves in the text log
+    public static final int DEFAULT_KEEP_DAYS = 7;
+
+    // Starts every block
+    private static final int BLOCK_MAGIC = 0x44434241;
+    // Marker, number of scores, length of the columns and the first time
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 8;
+    // Lowest and highest time, lowest and highest score, and the checksum of the columns
+    private static final int FOOTER_SIZE = 8 + 8 + 4 + 4 + 4;
+
+    private final Path path;
+    // Number of blocks skipped by reads because of their footer
+    private long skippedBlocks;
+
+    // Creates an archive stored in the given file; the file is created by the first append
+    public ScoreArchive(Path path) {
+        this.path = path;
+    }
+
+    // Returns the size of the archive file in bytes, 0 if it does not exist
+    public long size() throws IOException {
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /*
+      Appends scores to the archive in blocks with one write while holding the file lock,
+      and waits until they are on disk.
+    */
+    public synchronized void append(List<ScoreLedger.Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        appendBlocks(List.of(encodeBlocks(entries)), ScoreLedger.WHOLE_ARCHIVE);
+    }
+
+    /*
+      Appends encoded blocks with one write while holding the file lock, and waits until they are on disk.
+      If the write fails, the archive is cut back to where it ended, so it holds either all the blocks or none.
+      Length - where the archive should end, as recorded by the ledger; anything after it is left from a
+      compaction that stopped before rewriting the ledger and is written over. WHOLE_ARCHIVE to append at the end
+      Return the length of the archive after the blocks
+    */
+    synchronized long appendBlocks(List<ByteBuffer> blocks, long length) throws IOException {
+        try (FileChannel channel = LockedFiles.open(path, false, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Drop a block torn by a crash, so the new blocks can be read
+            long start = validLength(channel);
+            if (length >= 0 && length < start) {
+                start = length;
+            }
+            channel.truncate(start);
+            try {
+                long end = start;
+                for (ByteBuffer buffer : blocks) {
+                    while (buffer.hasRemaining()) {
+                        end += channel.write(buffer, end);
+                    }
+                }
+                channel.force(false);
+                return end;
+            } catch (IOException e) {
+                channel.truncate(start);
+                throw e;
+            }
+        }
+    }
+
+    // Encodes the scores into blocks of at most BLOCK_ENTRIES scores
+    static ByteBuffer encodeBlocks(List<ScoreLedger.Entry> entries) {
+        int blockCount = (entries.size() + BLOCK_ENTRIES - 1) / BLOCK_ENTRIES;
+        // A varint time difference takes at most 10 bytes, a varint score at most 5
+        ByteBuffer buffer = ByteBuffer.allocate(blockCount * (HEADER_SIZE + FOOTER_SIZE) + entries.size() * 15);
+        CRC32 crc = new CRC32();
+        for (int first = 0; first < entries.size(); first += BLOCK_ENTRIES) {
+            int last = Math.min(entries.size(), first + BLOCK_ENTRIES);
+            int headerStart = buffer.position();
+            buffer.position(headerStart + HEADER_SIZE);
+
+            long minTime = Long.MAX_VALUE, maxTime = Long.MIN_VALUE;
+            int minScore = Integer.MAX_VALUE, maxScore = Integer.MIN_VALUE;
+            long previousTime = entries.get(first).time();
+            for (int i = first; i < last; i++) {
+                long time = entries.get(i).time();
+                putVarLong(buffer, zigZag(time - previousTime));
+                previousTime = time;
+                minTime = Math.min(minTime, time);
+                maxTime = Math.max(maxTime, time);
+            }
+            for (int i = first; i < last; i++) {
+                int score = entries.get(i).score();
+                putVarLong(buffer, score);
+                minScore = Math.min(minScore, score);
+                maxScore = Math.max(maxScore, score);
+            }
+            int dataLength = buffer.position() - headerStart - HEADER_SIZE;
+            crc.reset();
+            crc.update(buffer.array(), headerStart + HEADER_SIZE, dataLength);
+
+            buffer.putLong(minTime).putLong(maxTime).putInt(minScore).putInt(maxScore).putInt((int) crc.getValue());
+            buffer.putInt(headerStart, BLOCK_MAGIC)
+                    .putInt(headerStart + 4, last - first)
+                    .putInt(headerStart + 8, dataLength)
+                    .putLong(headerStart + 12, entries.get(first).time());
+        }
+        return buffer.flip();
+    }
+
+    // Returns the length of the archive up to the end of its last complete block
+    private static long validLength(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (position + HEADER_SIZE <= size) {
+            header.clear();
+            channel.read(header, position);
+            long next = position + HEADER_SIZE + header.getInt(8) + FOOTER_SIZE;
+            if (header.getInt(0) != BLOCK_MAGIC || header.getInt(8) < 0 || next > size) {
+                break;
+            }
+            position = next;
+        }
+        return position;
+    }
+
+    // Returns the highest archived score, reading only the block footers; 0 if the archive is empty
+    public synchronized int getHighScore() throws IOException {
+        int[] highScore = {0};
+        scan(0, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, null,
+                (minTime, maxTime, minScore, maxScore) -> highScore[0] = Math.max(highScore[0], maxScore));
+        return highScore[0];
+    }
+
+    // Returns the time of the newest archived score, reading only the block footers; Long.MIN_VALUE if empty
+    public synchronized long getNewestTime() throws IOException {
+        long[] newest = {Long.MIN_VALUE};
+        scan(0, Long.MIN_VALUE, Long.MAX_VALUE, Integer.MIN_VALUE, null,
+                (minTime, maxTime, minScore, maxScore) -> newest[0] = Math.max(newest[0], maxTime));
+        return newest[0];
+    }
+
+    /*
+      Reads the scores of the blocks after the given position.
+      From - a position returned by an earlier read, or 0 to read the whole archive
+      Return the position after the last complete block, where the next read can start
+    */
+    public synchronized long read(long from, ScoreLedger.Visitor visitor) throws IOException {
+        return readSince(from, Long.MIN_VALUE, visitor);
+    }
+
+    /*
+      Reads the scores made from the given time on in the blocks after the given position, skipping the
+      blocks made entirely before it.
+      FromTime - in seconds since 1970-01-01 00:00
+      Return the position after the last complete block, where the next read can start
+    */
+    public synchronized long readSince(long from, long fromTime, ScoreLedger.Visitor visitor) throws IOException {
+        return scan(from, fromTime, Long.MAX_VALUE, Integer.MIN_VALUE, visitor, null);
+    }
+
+    /*
+      Reads the scores made between two local times, skipping the blocks made entirely outside them.
+      FromTime, ToTime - the range of times, in seconds since 1970-01-01 00:00, both included
+    */
+    public synchronized void read(long fromTime, long toTime, ScoreLedger.Visitor visitor) throws IOException {
+        scan(0, fromTime, toTime, Integer.MIN_VALUE, visitor, null);
+    }
+
+    /*
+      Reads the scores of at least the given value, skipping the blocks whose highest score is lower.
+      Blocks that are read are visited whole, so the visitor still sees lower scores from those blocks.
+    */
+    public synchronized void readAtLeast(int minScore, ScoreLedger.Visitor visitor) throws IOException {
+        scan(0, Long.MIN_VALUE, Long.MAX_VALUE, minScore, visitor, null);
+    }
+
+    /*
+      Reads the best scores of the archive, decoding only the blocks that can hold one of them: blocks are
+      decoded from the highest score of their footer down, until the given number of scores read are at
+      least the highest score of every block left. Blocks that are read are visited whole, so the visitor
+      also sees lower scores from those blocks.
+      Best - the number of best scores wanted
+      Length - the bytes of the archive to read, ScoreLedger.WHOLE_ARCHIVE for all of it
+      Return the number of scores in the part of the archive read, from the block headers
+    */
+    public synchronized long readBest(int best, long length, ScoreLedger.Visitor visitor) throws IOException {
+        try (FileChannel channel = LockedFiles.open(path, true, StandardOpenOption.READ)) {
+            long size = length < 0 ? channel.size() : Math.min(length, channel.size());
+            if (size == 0) {
+                return 0;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map");
+            }
+            MappedByteBuffer blocks = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            List<Integer> starts = new ArrayList<>();
+            long count = 0;
+            int position = 0;
+            while (position + HEADER_SIZE <= blocks.limit() && blocks.getInt(position) == BLOCK_MAGIC) {
+                int dataLength = blocks.getInt(position + 8);
+                int next = position + HEADER_SIZE + dataLength + FOOTER_SIZE;
+                if (dataLength < 0 || next > blocks.limit()) {
+                    break; // The last block is not complete
+                }
+                starts.add(position);
+                count += blocks.getInt(position + 4);
+                position = next;
+            }
+            starts.sort(Comparator.comparingInt((Integer start) -> maxScore(blocks, start)).reversed());
+
+            // The best scores read so far, lowest first
+            PriorityQueue<Integer> top = new PriorityQueue<>();
+            ScoreLedger.Visitor keeper = (score, time) -> {
+                visitor.onScore(score, time);
+                if (top.size() < best) {
+                    top.add(score);
+                } else if (best > 0 && score > top.peek()) {
+                    top.poll();
+                    top.add(score);
+                }
+            };
+            for (int i = 0; i < starts.size(); i++) {
+                int start = starts.get(i);
+                if (top.size() == best && (best == 0 || top.peek() >= maxScore(blocks, start))) {
+                    skippedBlocks += starts.size() - i;
+                    break;
+                }
+                decodeChecked(blocks, start, 0, Long.MIN_VALUE, Long.MAX_VALUE, keeper);
+            }
+            return count;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // Returns the highest score of a block from its footer
+    private static int maxScore(ByteBuffer blocks, int start) {
+        return blocks.getInt(start + HEADER_SIZE + blocks.getInt(start + 8) + 20);
+    }
+
+    // Checks the checksum of a complete block and visits its scores within the time range
+    private void decodeChecked(ByteBuffer blocks, int start, long offset, long fromTime, long toTime,
+                               ScoreLedger.Visitor visitor) throws IOException {
+        int data = start + HEADER_SIZE;
+        int footer = data + blocks.getInt(start + 8);
+        CRC32 crc = new CRC32();
+        crc.update(blocks.duplicate().limit(footer).position(data));
+        if ((int) crc.getValue() != blocks.getInt(footer + 24)) {
+            throw new IOException("Damaged block at " + (offset + start) + " in " + path);
+        }
+        decodeBlock(blocks, data, blocks.getInt(start + 4), blocks.getLong(start + 12), fromTime, toTime, visitor);
+    }
+
+    // Receives the footer of every complete block
+    private interface FooterVisitor {
+        void onFooter(long minTime, long maxTime, int minScore, int maxScore);
+    }
+
+    /*
+      Walks the complete blocks after the given position. With a footer visitor only the footers are
+      read; otherwise only the blocks whose footer overlaps the time range and reaches the score are decoded.
+    */
+    private long scan(long from, long fromTime, long toTime, int minScore, ScoreLedger.Visitor visitor,
+                      FooterVisitor footers) throws IOException {
+        try (FileChannel channel = LockedFiles.open(path, true, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (from >= size) {
+                return from;
+            }
+            if (size - from > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to map");
+            }
+            MappedByteBuffer blocks = channel.map(FileChannel.MapMode.READ_ONLY, from, size - from);
+            int limit = blocks.limit();
+            int position = 0;
+            while (position + HEADER_SIZE <= limit && blocks.getInt(position) == BLOCK_MAGIC) {
+                int dataLength = blocks.getInt(position + 8);
+                int data = position + HEADER_SIZE;
+                int footer = data + dataLength;
+                if (dataLength < 0 || footer + FOOTER_SIZE > limit) {
+                    break; // The last block is not complete
+                }
+                if (footers != null) {
+                    footers.onFooter(blocks.getLong(footer), blocks.getLong(footer + 8), blocks.getInt(footer + 16),
+                            blocks.getInt(footer + 20));
+                }
+                boolean wanted = blocks.getLong(footer + 8) >= fromTime && blocks.getLong(footer) <= toTime
+                        && blocks.getInt(footer + 20) >= minScore;
+                if (footers == null && wanted) {
+                    decodeChecked(blocks, position, from, fromTime, toTime, visitor);
+                } else {
+                    skippedBlocks++;
+                }
+                position = footer + FOOTER_SIZE;
+            }
+            return from + position;
+        } catch (NoSuchFileException e) {
+            return from;
+        }
+    }
+
+    // Decodes the two columns of a block and visits the scores within the time range
+    private static void decodeBlock(ByteBuffer blocks, int data, int count, long firstTime, long fromTime,
+                                    long toTime, ScoreLedger.Visitor visitor) {
+        ByteBuffer times = blocks.duplicate().position(data);
+        // The score column starts after the time column, so skip over the time varints first
+        ByteBuffer scores = blocks.duplicate().position(data);
+        for (int i = 0; i < count; i++) {
+            getVarLong(scores);
+        }
+        long time = firstTime;
+        for (int i = 0; i < count; i++) {
+            time += unZigZag(getVarLong(times));
+            int score = (int) getVarLong(scores);
+            if (time >= fromTime && time <= toTime) {
+                visitor.onScore(score, time);
+            }
+        }
+    }
+
+    // Returns the number of blocks skipped by reads of this archive
+    public synchronized long getSkippedBlocks() {
+        return skippedBlocks;
+    }
+
+    /*
+      Moves the scores made before the given day from the ledger into the archive, then drops the lines
+      of the same days from the text log. A ledger that does not exist yet is created with the scores of
+      the legacy text log first, so no score of the log is lost; the ledger is compacted before the log,
+      so a failure in between only leaves old lines in the log, which analytics skip since they are archived.
+      Return the number of scores moved
+    */
+    public int compact(ScoreLedger ledger, Path logPath, LocalDate keepFrom) throws IOException {
+        long keepFromTime = keepFrom.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        int moved = ledger.compact(keepFromTime, this);
+        trimLog(logPath, keepFromTime);
+        return moved;
+    }
+
+    /*
+      Drops the lines of the text log made before the given time, which the ledger holds.
+      The log stays locked meanwhile, so score writers wait. The newer lines go to a temporary file that
+      then replaces the log; writers waiting for the lock find that the log was replaced and open the new file.
+    */
+    private static void trimLog(Path logPath, long keepFromTime) throws IOException {
+        if (!Files.exists(logPath)) {
+            return;
+        }
+        Path temp = Files.createTempFile(logPath.toAbsolutePath().getParent(), logPath.getFileName().toString(),
+                ".tmp");
+        try (FileChannel channel = LockedFiles.open(logPath, false, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            boolean keeping = false;
+            try (BufferedWriter kept = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                // Not closed on its own, since that would close the channel before the log is replaced
+                BufferedReader reader = new BufferedReader(new InputStreamReader(
+                        Channels.newInputStream(channel.position(0)), StandardCharsets.UTF_8));
+                String line;
+                boolean dropped = false;
+                while ((line = reader.readLine()) != null) {
+                    ScoreLedger.Entry entry = ScoreLedger.parseLogLine(line);
+                    // The log is in time order, so everything from the first recent line on is kept
+                    keeping |= entry != null && entry.time() >= keepFromTime;
+                    if (keeping) {
+                        kept.write(line);
+                        kept.write('\n');
+                    } else {
+                        dropped = true;
+                    }
+                }
+                if (!dropped) {
+                    return;
+                }
+            }
+            try (FileChannel keptChannel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                keptChannel.force(false);
+            }
+            Files.move(temp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Writes a value as a varint: 7 bits per byte, low bits first, the high bit set on all but the last byte
+    static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    // Reads a varint written by putVarLong
+    static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    // Maps signed values to unsigned ones so that small negative differences stay short
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /*
+      Moves the older games of a ledger into an archive, trims the text log and prints how much space it saved.
+      Args - the ledger path, the log path, the archive path and the number of days to keep, each optional
+    */
+    public static void main(String[] args) throws IOException {
+        ScoreLedger ledger = new ScoreLedger(Path.of(args.length > 0 ? args[0] : ScoreLedger.LEDGER_FILE));
+        Path logPath = Path.of(args.length > 1 ? args[1] : ScoreIndex.LOG_FILE);
+        ScoreArchive archive = new ScoreArchive(Path.of(args.length > 2 ? args[2] : ARCHIVE_FILE));
+        int keepDays = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_KEEP_DAYS;
+
+        long before = ledger.size() + logSize(logPath) + archive.size();
+        int moved = archive.compact(ledger, logPath, LocalDate.now().minusDays(keepDays));
+        long saved = before - ledger.size() - logSize(logPath) - archive.size();
+        System.out.printf("Moved %d scores into %s, saving %d bytes%n", moved, archive.path, saved);
+    }
+
+    // Returns the size of a file in bytes, 0 if it does not exist
+    private static long logSize(Path logPath) throws IOException {
+        try {
+            return Files.size(logPath);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+}
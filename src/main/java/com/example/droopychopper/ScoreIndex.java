@@ -0,0 +1,177 @@
+package com.example.droopychopper;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/*
+  The ScoreIndex class keeps the best scores of the score history in a small sidecar file, so the menu
+  can show the high score without reading every score. The history is the score archive followed by
+  the score ledger.
+  The index remembers the ledger cursor it has read up to. When the ledger grows, only the new records
+  are read; when the ledger was compacted or replaced, or the index is missing or damaged, the index
+  is rebuilt: from the archive, decoding only the blocks whose footer can hold a best score, and from
+  the whole ledger.
+*/
+public class ScoreIndex {
+    // Number of best scores kept
+    public static final int TOP_SCORES = 10;
+
+    // Files used by the game
+    public static final String LOG_FILE = "logs.txt";
+    public static final String INDEX_FILE = "logs.idx";
+
+    // Marks a score index file, followed by the format version
+    private static final int MAGIC = 0x44435349;
+    // Version 1 indexed the text log, version 2 the ledger, version 3 the archive and the ledger
+    private static final int VERSION = 3;
+
+    // The index of the game's own ledger, opened on first use
+    private static ScoreIndex shared;
+
+    private final ScoreLedger ledger;
+    private final ScoreArchive archive;
+    private final Path indexPath;
+
+    // Where the reading of the ledger stopped, always at the end of a valid record
+    private ScoreLedger.Cursor cursor = ScoreLedger.Cursor.START;
+    // Number of scores read so far
+    private long scoreCount;
+    // The best scores, highest first; only the first topCount are used
+    private final int[] topScores = new int[TOP_SCORES];
+    private int topCount;
+
+    // Creates an index of the given archive and ledger, stored in the given file
+    public ScoreIndex(ScoreLedger ledger, ScoreArchive archive, Path indexPath) {
+        this.ledger = ledger;
+        this.archive = archive;
+        this.indexPath = indexPath;
+        if (!load()) {
+            clear();
+        }
+    }
+
+    // Returns the index of the game's score ledger
+    public static synchronized ScoreIndex getShared() {
+        if (shared == null) {
+            shared = new ScoreIndex(ScoreLedger.getShared(), new ScoreArchive(Path.of(ScoreArchive.ARCHIVE_FILE)),
+                    Path.of(INDEX_FILE));
+        }
+        return shared;
+    }
+
+    // Returns the highest score, or 0 if no game has been recorded
+    public synchronized int getHighScore() {
+        refresh();
+        return topCount == 0 ? 0 : topScores[0];
+    }
+
+    // Returns the best scores, highest first
+    public synchronized int[] getTopScores() {
+        refresh();
+        return Arrays.copyOf(topScores, topCount);
+    }
+
+    // Returns the number of scores in the archive and the ledger
+    public synchronized long getScoreCount() {
+        refresh();
+        return scoreCount;
+    }
+
+    /*
+      Brings the index up to date with the ledger and saves it if anything changed.
+      Called after scores are appended, this reads only the new records.
+      A ledger that does not exist yet is first created with the scores of the legacy text log.
+    */
+    public synchronized void refresh() {
+        try {
+            ledger.create();
+            ScoreLedger.Cursor next = ledger.read(cursor, (score, time) -> addScore(score));
+            while (next.generation() != cursor.generation()) {
+                // A compacted or new ledger: the index no longer describes it, so read the archive and the ledger again
+                clear();
+                scoreCount = archive.readBest(TOP_SCORES, next.archiveLength(), (score, time) -> keepScore(score));
+                cursor = next;
+                next = ledger.read(cursor, (score, time) -> addScore(score));
+            }
+            if (!next.equals(cursor)) {
+                cursor = next;
+                save();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Forgets every score read
+    private void clear() {
+        cursor = ScoreLedger.Cursor.START;
+        scoreCount = 0;
+        topCount = 0;
+    }
+
+    // Counts a score and keeps it if it is among the best
+    private void addScore(int score) {
+        scoreCount++;
+        keepScore(score);
+    }
+
+    // Keeps a score if it is among the best
+    private void keepScore(int score) {
+        if (topCount == TOP_SCORES && score <= topScores[TOP_SCORES - 1]) {
+            return;
+        }
+        int i = Math.min(topCount, TOP_SCORES - 1);
+        while (i > 0 && topScores[i - 1] < score) {
+            topScores[i] = topScores[i - 1];
+            i--;
+        }
+        topScores[i] = score;
+        topCount = Math.min(topCount + 1, TOP_SCORES);
+    }
+
+    // Reads the index file, returning false if it is missing or not a valid index
+    private boolean load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            cursor = new ScoreLedger.Cursor(in.readLong(), in.readLong(), in.readLong());
+            scoreCount = in.readLong();
+            topCount = in.readInt();
+            if (cursor.position() < 0 || topCount < 0 || topCount > TOP_SCORES) {
+                return false;
+            }
+            for (int i = 0; i < topCount; i++) {
+                topScores[i] = in.readInt();
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Writes the index to a temporary file and moves it over the old one, so a crash never leaves half an index
+    private void save() throws IOException {
+        // A temporary file of its own, since other game processes may be saving the index too
+        Path temp = Files.createTempFile(indexPath.toAbsolutePath().getParent(), INDEX_FILE, ".tmp");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(cursor.generation());
+            out.writeLong(cursor.archiveLength());
+            out.writeLong(cursor.position());
+            out.writeLong(scoreCount);
+            out.writeInt(topCount);
+            for (int i = 0; i < topCount; i++) {
+                out.writeInt(topScores[i]);
+            }
+        }
+        Files.move(temp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,549 @@
+package com.example.droopychopper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/*
+  The ScoreLedger class stores every score in an append-only binary file that several game processes
+  can share. Each record starts with a marker and its length and ends with a CRC32 of its contents.
+  Appends take an exclusive FileLock and add a whole batch with one positioned write, so records
+  from different processes never interleave. Readers take a shared lock and skip any record that
+  does not check out, such as the torn tail left by a process that died while writing.
+  Records hold the seed of the game and its encoded InputRecording since those were added; readers
+  take them from the record length, so older records, which end after the score, still read with
+  NO_SEED and no inputs.
+  The compact method moves the older scores into a ScoreArchive and rewrites the ledger with the rest,
+  so the ledger holds the recent games in full and the archive the score and time of the older ones.
+  Each rewrite gives the ledger a new generation, kept in its header with the length of the archive
+  that goes with it; readers keep a Cursor and start over when the generation changes.
+  A new ledger is written whole to a temporary file, with the scores of the legacy text log, and moved
+  into place, so a ledger with a header always holds the log: whichever process or thread creates it,
+  by appending a score or by reading first, imports the log exactly once.
+*/
+public class ScoreLedger {
+    // File used by the game
+    public static final String LEDGER_FILE = "scores.ledger";
+
+    // Marks a ledger file, followed by the format version
+    private static final int MAGIC = 0x44434C47;
+    private static final int VERSION = 2;
+    // Marker, version, generation and archive length; version 1 headers end after the version
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    private static final int V1_HEADER_SIZE = 4 + 4;
+
+    // Generation of a missing ledger
+    public static final long NO_GENERATION = -1;
+    // Archive length of a ledger that was never compacted: all of the archive goes with it
+    public static final long WHOLE_ARCHIVE = -1;
+
+    // Starts every record, so a reader can find the next record after a damaged one
+    private static final short RECORD_MARK = (short) 0xD5C0;
+    // Marker and length before the contents, checksum after them
+    private static final int RECORD_OVERHEAD = 2 + 4 + 4;
+    // Contents of a record before the inputs: the time, the score and the seed of the game
+    private static final int PAYLOAD_SIZE = 8 + 4 + 8;
+    // Contents of a record written before seeds were recorded: the time and the score
+    private static final int MIN_PAYLOAD_SIZE = 8 + 4;
+    // Longest contents a reader accepts, so a damaged length is not followed far
+    private static final int MAX_PAYLOAD_SIZE = 16 * 1024;
+    // Longest inputs stored with a score, several thousand flaps; longer ones are not stored
+    public static final int MAX_INPUTS_SIZE = MAX_PAYLOAD_SIZE - PAYLOAD_SIZE;
+    // Inputs read from a record without any
+    private static final ByteBuffer NO_INPUTS = ByteBuffer.allocate(0);
+
+    // Prefixes of the parts of a legacy log line, for example "Score: 12 | Time: 2024-07-12 21:31:13"
+    private static final String SCORE_PREFIX = "Score:";
+    private static final String TIME_PREFIX = "Time:";
+    private static final String SEED_PREFIX = "Seed:";
+
+    // The ledger of the game, shared so that threads of this process do not lock the file against each other
+    private static ScoreLedger shared;
+
+    // Seed of the scores saved before seeds were recorded
+    public static final long NO_SEED = 0;
+
+    /*
+      A score, the local time it was made, in seconds since 1970-01-01 00:00, the seed of its game
+      and the inputs of the game encoded by InputRecording.
+    */
+    public record Entry(int score, long time, long seed, byte[] inputs) {
+        // Creates an entry for a score whose seed and inputs are not known
+        public Entry(int score, long time) {
+            this(score, time, NO_SEED);
+        }
+
+        // Creates an entry for a score whose inputs are not known
+        public Entry(int score, long time, long seed) {
+            this(score, time, seed, InputRecording.NO_INPUTS);
+        }
+
+        // Creates an entry for a score made at the given local time in a game with the given seed and inputs
+        public static Entry of(int score, long seed, byte[] inputs, LocalDateTime time) {
+            return new Entry(score, time.toEpochSecond(ZoneOffset.UTC), seed, inputs);
+        }
+
+        // Returns the local time the score was made
+        public LocalDateTime getLocalTime() {
+            return LocalDateTime.ofEpochSecond(time, 0, ZoneOffset.UTC);
+        }
+    }
+
+    /*
+      Where a reader of the ledger stopped. A cursor only points into the generation it was taken from.
+      ArchiveLength - the bytes of the archive holding the scores compacted out of the ledger, WHOLE_ARCHIVE for all
+      Position - the position after the last valid record read
+    */
+    public record Cursor(long generation, long archiveLength, long position) {
+        // Before the first read of any ledger
+        public static final Cursor START = new Cursor(NO_GENERATION, WHOLE_ARCHIVE, 0);
+    }
+
+    // The header of a ledger file: its size, the generation and the archive length
+    private record Header(int size, long generation, long archiveLength) {
+    }
+
+    // Receives the contents of every valid record
+    private interface RecordHandler {
+        void onRecord(ByteBuffer records, int contents, int length) throws IOException;
+    }
+
+    // Receives the scores read from the ledger
+    public interface Visitor {
+        void onScore(int score, long time);
+
+        // Receives a score with the seed of its game, NO_SEED if it is not known
+        default void onScore(int score, long time, long seed) {
+            onScore(score, time);
+        }
+
+        /*
+          Receives a score with the seed and the encoded inputs of its game.
+          Inputs - empty if they are not known; only valid during the call
+        */
+        default void onScore(int score, long time, long seed, ByteBuffer inputs) {
+            onScore(score, time, seed);
+        }
+    }
+
+    private final Path path;
+    // The legacy text log copied into a new ledger, null for none
+    private final Path legacyLogPath;
+    private final CRC32 crc = new CRC32();
+    // Number of damaged bytes skipped by reads
+    private long skippedBytes;
+    // True once this ledger was seen with a header, so create has nothing left to do
+    private boolean created;
+
+    // Creates a ledger stored in the given file, without a legacy log; the file is created by the first append
+    public ScoreLedger(Path path) {
+        this(path, null);
+    }
+
+    /*
+      Creates a ledger stored in the given file; the file is created by the first append or call to create.
+      LegacyLogPath - the text log whose scores a new ledger starts with, null for none
+    */
+    public ScoreLedger(Path path, Path legacyLogPath) {
+        this.path = path;
+        this.legacyLogPath = legacyLogPath;
+    }
+
+    // Returns the ledger of the game
+    public static synchronized ScoreLedger getShared() {
+        if (shared == null) {
+            shared = new ScoreLedger(Path.of(LEDGER_FILE), Path.of(ScoreIndex.LOG_FILE));
+        }
+        return shared;
+    }
+
+    // Returns the size of the ledger file in bytes, 0 if it does not exist
+    public long size() throws IOException {
+        try {
+            return Files.size(path);
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    // Appends one score to the ledger
+    public void append(Entry entry) throws IOException {
+        append(List.of(entry));
+    }
+
+    /*
+      Appends scores to the ledger with one write while holding the file lock,
+      and waits until they are on disk.
+    */
+    public synchronized void append(List<Entry> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try (FileChannel channel = openForWriting()) {
+            ByteBuffer buffer = ByteBuffer.allocate(recordsSize(entries));
+            putRecords(buffer, entries);
+            buffer.flip();
+            long position = channel.size();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Creates the ledger with the scores of the legacy log if it does not exist yet
+    public synchronized void create() throws IOException {
+        if (!created) {
+            openForWriting().close();
+        }
+    }
+
+    /*
+      Opens the ledger and locks it for writing. A file without a complete header, missing, empty or
+      torn by a crash before the header was whole, holds nothing valid, so it is replaced by a new ledger
+      first and opened again.
+    */
+    private FileChannel openForWriting() throws IOException {
+        while (true) {
+            FileChannel channel = LockedFiles.open(path, false, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            try {
+                if (readHeader(channel) != null) {
+                    created = true;
+                    return channel;
+                }
+                writeNewLedger();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            channel.close();
+        }
+    }
+
+    /*
+      Writes a new ledger holding the scores of the legacy log to a temporary file and moves it over the
+      ledger file, whose lock the caller holds. Lines that are not score lines are ignored; a line with an
+      unreadable time gets time 0.
+    */
+    private void writeNewLedger() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        if (legacyLogPath != null && Files.exists(legacyLogPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(legacyLogPath)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Entry entry = parseLogLine(line);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + recordsSize(entries));
+        putHeader(buffer, newGeneration(), WHOLE_ARCHIVE);
+        putRecords(buffer, entries);
+        buffer.flip();
+
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long position = 0;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                channel.force(false);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    // Returns the number of bytes the records of the entries take up
+    private static int recordsSize(List<Entry> entries) {
+        int size = 0;
+        for (Entry entry : entries) {
+            size += RECORD_OVERHEAD + PAYLOAD_SIZE + storedInputs(entry).length;
+        }
+        return size;
+    }
+
+    // Puts the records of the entries into the buffer
+    private void putRecords(ByteBuffer buffer, List<Entry> entries) {
+        for (Entry entry : entries) {
+            byte[] inputs = storedInputs(entry);
+            int length = PAYLOAD_SIZE + inputs.length;
+            buffer.putShort(RECORD_MARK).putInt(length);
+            int payload = buffer.position();
+            buffer.putLong(entry.time()).putInt(entry.score()).putLong(entry.seed()).put(inputs);
+            crc.reset();
+            crc.update(buffer.array(), payload, length);
+            buffer.putInt((int) crc.getValue());
+        }
+    }
+
+    /*
+      Returns the generation of a new ledger file: the current time in milliseconds, far above the
+      generations reached by compacting, so a cursor into a deleted ledger never matches a new one.
+    */
+    private static long newGeneration() {
+        return System.currentTimeMillis();
+    }
+
+    private static void putHeader(ByteBuffer buffer, long generation, long archiveLength) {
+        buffer.putInt(MAGIC).putInt(VERSION).putLong(generation).putLong(archiveLength);
+    }
+
+    /*
+      Reads the header of a locked ledger file.
+      Return the header, or null if the file is empty or its header was torn by a crash
+    */
+    private Header readHeader(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < V1_HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException(path + " is not a score ledger");
+        }
+        int version = header.getInt(4);
+        if (version == 1) {
+            // Never compacted; its generation stays 0 until the first compaction rewrites it
+            return new Header(V1_HEADER_SIZE, 0, WHOLE_ARCHIVE);
+        }
+        if (version != VERSION) {
+            throw new IOException(path + " is a score ledger of unknown version " + version);
+        }
+        return size < HEADER_SIZE ? null : new Header(HEADER_SIZE, header.getLong(8), header.getLong(16));
+    }
+
+    // Returns the inputs stored with an entry, none if they are too long for a record
+    private static byte[] storedInputs(Entry entry) {
+        byte[] inputs = entry.inputs();
+        return inputs == null || inputs.length > MAX_INPUTS_SIZE ? InputRecording.NO_INPUTS : inputs;
+    }
+
+    /*
+      Reads the scores after a cursor, skipping damaged records.
+      If the ledger is not of the cursor's generation, because it was compacted, replaced or deleted,
+      nothing is read and the cursor returned is at the start of the current generation; the reader
+      forgets what it read and reads again from that cursor.
+      From - a cursor returned by an earlier read, or Cursor.START
+      Return the cursor after the last valid record, where the next read can start
+    */
+    public synchronized Cursor read(Cursor from, Visitor visitor) throws IOException {
+        try (FileChannel channel = LockedFiles.open(path, true, StandardOpenOption.READ)) {
+            Header header = readHeader(channel);
+            if (header == null) {
+                return Cursor.START;
+            }
+            if (header.generation() != from.generation()) {
+                return new Cursor(header.generation(), header.archiveLength(), 0);
+            }
+            long size = channel.size();
+            long start = Math.max(from.position(), header.size());
+            if (start < size) {
+                MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, start, size - start);
+                start += readRecords(records, (buffer, contents, length) -> visit(buffer, contents, length, visitor));
+            }
+            return new Cursor(header.generation(), header.archiveLength(), start);
+        } catch (NoSuchFileException e) {
+            return Cursor.START;
+        }
+    }
+
+    // Reads every score of the ledger, skipping damaged records
+    public void readAll(Visitor visitor) throws IOException {
+        Cursor cursor = Cursor.START;
+        Cursor next;
+        // Nothing is read until the generation is known, so a compaction in between reads nothing twice
+        while ((next = read(cursor, visitor)).generation() != cursor.generation()) {
+            cursor = next;
+        }
+    }
+
+    // Gives the visitor the score, time, seed and inputs of a record
+    private static void visit(ByteBuffer records, int contents, int length, Visitor visitor) {
+        long seed = length >= PAYLOAD_SIZE ? records.getLong(contents + 12) : NO_SEED;
+        ByteBuffer inputs = length > PAYLOAD_SIZE
+                ? records.slice(contents + PAYLOAD_SIZE, length - PAYLOAD_SIZE)
+                : NO_INPUTS;
+        visitor.onScore(records.getInt(contents + 8), records.getLong(contents), seed, inputs);
+    }
+
+    // Passes the valid records in the buffer to the handler, returning the position after the last one
+    private int readRecords(ByteBuffer records, RecordHandler handler) throws IOException {
+        int limit = records.limit();
+        int position = 0;
+        int validEnd = 0;
+        while (position + RECORD_OVERHEAD <= limit) {
+            int length = records.getInt(position + 2);
+            int next = position + RECORD_OVERHEAD + length;
+            if (records.getShort(position) != RECORD_MARK || length < MIN_PAYLOAD_SIZE || length > MAX_PAYLOAD_SIZE) {
+                position++; // Not the start of a record, look for the next marker
+                continue;
+            }
+            // Readers hold the shared lock, so no record is being written: one running past the end was torn,
+            // and its length cannot be trusted to hide the records appended after it
+            if (next > limit) {
+                position++;
+                continue;
+            }
+            crc.reset();
+            records.limit(position + 6 + length).position(position + 6);
+            crc.update(records);
+            records.limit(limit);
+            if ((int) crc.getValue() != records.getInt(position + 6 + length)) {
+                position++;
+                continue;
+            }
+            skippedBytes += position - validEnd;
+            handler.onRecord(records, position + 6, length);
+            position = next;
+            validEnd = next;
+        }
+        return validEnd;
+    }
+
+    /*
+      Moves the scores made before the given time into the archive and rewrites the ledger with the
+      newer records; the seeds and inputs of the moved games are dropped. The ledger stays locked
+      meanwhile, so score writers wait for the compaction.
+      The newer records go to a temporary file first, the moved scores are appended to the archive
+      with one write, and then the temporary file, whose header holds the new archive length, replaces
+      the ledger. Until then the ledger keeps the old archive length, so readers ignore the blocks of a
+      compaction that stopped halfway, and the next compaction writes over them.
+      KeepFromTime - in seconds since 1970-01-01 00:00 local time
+      Return the number of scores moved
+    */
+    public synchronized int compact(long keepFromTime, ScoreArchive archive) throws IOException {
+        // A new ledger first takes in the legacy log, so the log can be trimmed after the compaction
+        create();
+        Path temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try (FileChannel channel = LockedFiles.open(path, false, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Header header = readHeader(channel);
+            if (header == null) {
+                return 0;
+            }
+            // Encoded a block at a time, so the scores moved never have to fit in memory as entries
+            List<ByteBuffer> blocks = new ArrayList<>();
+            List<Entry> block = new ArrayList<>();
+            int[] moved = {0};
+            try (FileChannel kept = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                long[] keptEnd = {HEADER_SIZE};
+                long size = channel.size();
+                if (size > header.size()) {
+                    MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, header.size(),
+                            size - header.size());
+                    readRecords(records, (buffer, contents, length) -> {
+                        long time = buffer.getLong(contents);
+                        if (time >= keepFromTime) {
+                            // Copied as it is, marker and checksum included
+                            ByteBuffer record = buffer.slice(contents - 6, RECORD_OVERHEAD + length);
+                            while (record.hasRemaining()) {
+                                keptEnd[0] += kept.write(record, keptEnd[0]);
+                            }
+                            return;
+                        }
+                        block.add(new Entry(buffer.getInt(contents + 8), time));
+                        moved[0]++;
+                        if (block.size() == ScoreArchive.BLOCK_ENTRIES) {
+                            blocks.add(ScoreArchive.encodeBlocks(block));
+                            block.clear();
+                        }
+                    });
+                }
+                if (moved[0] == 0) {
+                    return 0;
+                }
+                if (!block.isEmpty()) {
+                    blocks.add(ScoreArchive.encodeBlocks(block));
+                }
+
+                long archiveLength = archive.appendBlocks(blocks, header.archiveLength());
+                ByteBuffer newHeader = ByteBuffer.allocate(HEADER_SIZE);
+                putHeader(newHeader, header.generation() + 1, archiveLength);
+                newHeader.flip();
+                while (newHeader.hasRemaining()) {
+                    kept.write(newHeader, newHeader.position());
+                }
+                kept.force(false);
+            }
+            // The archive is on disk before the ledger loses the records
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return moved[0];
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /*
+      Reads a log line such as "Score: 12 | Time: 2024-07-12 21:31:13 | Seed: 5deece66d".
+      Lines written before seeds were recorded end after the time.
+      Return the score, time and seed, or null if the line holds no score
+    */
+    static Entry parseLogLine(String line) {
+        if (!line.startsWith(SCORE_PREFIX)) {
+            return null;
+        }
+        int start = SCORE_PREFIX.length();
+        while (start < line.length() && line.charAt(start) == ' ') {
+            start++;
+        }
+        int end = start;
+        int score = 0;
+        while (end < line.length() && Character.isDigit(line.charAt(end)) && end - start < 9) {
+            score = score * 10 + (line.charAt(end) - '0');
+            end++;
+        }
+        if (end == start) {
+            return null;
+        }
+        long time = 0;
+        int timeStart = line.indexOf(TIME_PREFIX, end);
+        if (timeStart >= 0) {
+            try {
+                time = LocalDateTime.parse(field(line, timeStart + TIME_PREFIX.length()), ScoreWriter.LOG_TIME_FORMAT)
+                        .toEpochSecond(ZoneOffset.UTC);
+            } catch (DateTimeParseException e) {
+                time = 0;
+            }
+        }
+        long seed = NO_SEED;
+        int seedStart = line.indexOf(SEED_PREFIX, end);
+        if (seedStart >= 0) {
+            try {
+                seed = Long.parseUnsignedLong(field(line, seedStart + SEED_PREFIX.length()), 16);
+            } catch (NumberFormatException e) {
+                seed = NO_SEED;
+            }
+        }
+        return new Entry(score, time, seed);
+    }
+
+    // Returns the text of a log line field starting at the given index, up to the next separator
+    private static String field(String line, int start) {
+        int end = line.indexOf('|', start);
+        return line.substring(start, end < 0 ? line.length() : end).trim();
+    }
+
+    // Returns the number of damaged bytes skipped by reads of this ledger
+    public synchronized long getSkippedBytes() {
+        return skippedBytes;
+    }
+}
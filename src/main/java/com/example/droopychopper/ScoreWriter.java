@@ -0,0 +1,246 @@
+package com.example.droopychopper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/*
+  The ScoreWriter class saves scores on a background thread, so the game thread never waits for
+  the disk. Scores wait in a bounded queue; the writer collects every score that arrives within the
+  flush interval and appends them together to the score ledger, then to the text log, one write
+  and one sync each. Both files are locked while writing, so several game processes can share them.
+  It keeps the time from submitting a score to the score being on disk, and the queue depth.
+*/
+public class ScoreWriter implements AutoCloseable {
+    // Default time the writer waits for more scores before writing a batch
+    public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 250;
+    // Number of scores that may wait to be written
+    public static final int QUEUE_CAPACITY = 256;
+
+    // Longest time close waits for the queued scores to be written
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    // Format of the times in the text log
+    static final DateTimeFormatter LOG_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // A score waiting to be written, the seed and inputs of its game, when it was made and the time it was submitted
+    private record Entry(int score, long seed, byte[] inputs, LocalDateTime time, long submitNanos) {
+    }
+
+    // Queued by close to tell the writer thread to finish
+    private static final Entry CLOSE = new Entry(0, 0, null, null, 0);
+
+    private final ScoreLedger ledger;
+    private final Path logPath;
+    private final long flushIntervalMillis;
+    private final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread thread;
+    private volatile boolean closed;
+
+    // Counters and latencies; rejected scores are counted by the submitting thread, the rest by the writer thread
+    private volatile long writtenLines, batches, rejectedLines, failedWrites;
+    private volatile long lastLatencyNanos, maxLatencyNanos, totalLatencyNanos;
+    private volatile int maxQueueDepth;
+
+    /*
+      Creates a writer appending to the given ledger and text log, and starts its thread.
+      FlushIntervalMillis - how long the writer waits for more scores after the first one of a batch
+    */
+    public ScoreWriter(ScoreLedger ledger, Path logPath, long flushIntervalMillis) {
+        this.ledger = ledger;
+        this.logPath = logPath;
+        this.flushIntervalMillis = flushIntervalMillis;
+        thread = new Thread(this::run, "score-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /*
+      Returns the text log line for a score, for example "Score: 12 | Time: 2024-07-12 21:31:13 | Seed: 5deece66d",
+      ending with a line break. The seed is written in hexadecimal.
+    */
+    public static String formatLine(int score, long seed, LocalDateTime time) {
+        return "Score: " + score + " | Time: " + time.format(LOG_TIME_FORMAT) + " | Seed: " + Long.toHexString(seed) + "\n";
+    }
+
+    /*
+      Queues a score to be saved.
+      Seed, Inputs - the seed and the encoded InputRecording of the game, so the game can be played again;
+      the inputs are kept in the ledger only
+      Time - the local time the score was made
+      Return true if the score was queued, false if the queue is full or the writer is closed
+    */
+    public boolean submit(int score, long seed, byte[] inputs, LocalDateTime time) {
+        if (closed || !queue.offer(new Entry(score, seed, inputs, time, System.nanoTime()))) {
+            rejectedLines++;
+            return false;
+        }
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        return true;
+    }
+
+    /*
+      Writes the queued scores and stops the writer thread. The thread is not interrupted,
+      since that would abort a write in progress; it finishes when it reaches the close marker.
+    */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (queue.offer(CLOSE, CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                thread.join(CLOSE_TIMEOUT_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Waits for scores, then writes every score that arrived within the flush interval as one batch
+    private void run() {
+        ArrayList<Entry> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                Entry next = queue.take();
+                long deadline = next.submitNanos() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+                while (next != null) {
+                    if (next == CLOSE) {
+                        running = false;
+                        break;
+                    }
+                    batch.add(next);
+                    next = batch.size() < QUEUE_CAPACITY
+                            ? queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)
+                            : null;
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                // A bug in one store must not stop the writer, or every later score would be rejected
+                e.printStackTrace();
+            }
+            batch.clear();
+        }
+    }
+
+    /*
+      Appends a batch of scores to the ledger and the text log and waits until they are on disk.
+      Each file is written even if the other fails; the batch counts as saved once the ledger has it,
+      since the ledger is what the high score index reads.
+    */
+    private void write(ArrayList<Entry> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        ArrayList<ScoreLedger.Entry> records = new ArrayList<>(batch.size());
+        StringBuilder text = new StringBuilder();
+        for (Entry entry : batch) {
+            records.add(ScoreLedger.Entry.of(entry.score(), entry.seed(), entry.inputs(), entry.time()));
+            text.append(formatLine(entry.score(), entry.seed(), entry.time()));
+        }
+        boolean saved = true;
+        try {
+            ledger.append(records);
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            failedWrites++;
+            saved = false;
+        }
+        try {
+            appendToLog(text.toString());
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            failedWrites++;
+        }
+        if (!saved) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (Entry entry : batch) {
+            long latency = now - entry.submitNanos();
+            lastLatencyNanos = latency;
+            maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+            totalLatencyNanos += latency;
+        }
+        writtenLines += batch.size();
+        batches++;
+        ScoreIndex.getShared().refresh(); // Add the new scores to the high score index
+    }
+
+    /*
+      Appends lines to the text log while holding its lock, so lines from several processes do not mix.
+      The log is opened again if a compaction replaced it while this writer waited for the lock.
+    */
+    private void appendToLog(String text) throws IOException {
+        try (FileChannel channel = LockedFiles.open(logPath, false, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+            long position = channel.size();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        }
+    }
+
+    // Returns the number of scores waiting to be written
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    // Returns the largest number of scores that were waiting at once
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    // Returns the number of scores written
+    public long getWrittenLines() {
+        return writtenLines;
+    }
+
+    // Returns the number of batches written
+    public long getBatches() {
+        return batches;
+    }
+
+    // Returns the number of scores that could not be queued
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    // Returns the number of batches the ledger or the text log failed to write
+    public long getFailedWrites() {
+        return failedWrites;
+    }
+
+    // Returns the time from submitting the last written score to it being on disk, in milliseconds
+    public double getLastLatency() {
+        return lastLatencyNanos / 1_000_000.0;
+    }
+
+    // Returns the longest time from submitting a score to it being on disk, in milliseconds
+    public double getMaxLatency() {
+        return maxLatencyNanos / 1_000_000.0;
+    }
+
+    // Returns the average time from submitting a score to it being on disk, in milliseconds
+    public double getAverageLatency() {
+        long lines = writtenLines;
+        return lines == 0 ? 0 : totalLatencyNanos / (double) lines / 1_000_000.0;
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.droopychopper;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+  The SimulationThread class steps a GameWorld on its own thread at the world's fixed tick rate, so
+  the game keeps its speed while the UI thread is busy with layout, a new window or garbage collection.
+  The thread owns the world: other threads only post commands, which run before the next tick, and
+  read the WorldSnapshot published after every tick.
+  User inputs are queued with the time they were pressed and given to the tick due at that time, so a
+  flap lands on the same tick however late the UI thread or this thread runs; when the thread catches
+  up after a hitch, each input still goes to its own tick instead of all to the first one.
+  Snapshots are exchanged through three buffers without locks: the thread fills the back buffer and
+  swaps it with the shared one, and the renderer swaps its front buffer with the shared one when a
+  newer snapshot is there. Neither side ever waits for the other or sees a snapshot being written.
+  The world's events are passed to the listener on the given executor, for example the UI thread.
+*/
+public class SimulationThread implements AutoCloseable {
+    // Longest time the thread catches up on after a hitch, as FixedTimestep does for frames
+    private static final long MAX_LAG_NANOS = (long) (FixedTimestep.MAX_FRAME_TIME * 1_000_000_000L);
+    // Bit set in the shared index while the shared buffer holds a snapshot the renderer has not taken
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final GameWorld world;
+    private final long tickNanos;
+    // Records the interval between ticks, null when not profiling
+    private final FrameProfiler profiler;
+
+    private final WorldSnapshot[] snapshots = {new WorldSnapshot(), new WorldSnapshot(), new WorldSnapshot()};
+    // Buffer being filled by the thread, buffer shared between both sides, buffer read by the renderer
+    private int back = 0;
+    private final AtomicInteger shared = new AtomicInteger(1);
+    private int front = 2;
+
+    // Actions waiting to run on the thread before the next tick
+    private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    // Times of the user inputs not given to the world yet
+    private final InputQueue inputs = new InputQueue();
+    // Number of inputs the world accepted and the time of the last one, copied into every snapshot
+    private long acceptedInputs, lastInputNanos;
+    // Inputs of the game being replayed, null while the player plays, and the index of the next input to give
+    private InputRecording replayInputs;
+    private int replayIndex;
+
+    private final Thread thread;
+    private volatile boolean closed;
+    // Number of times the thread fell so far behind that it skipped ticks
+    private volatile long lagResets;
+
+    /*
+      Creates the thread for a world; the thread steps nothing until it is started.
+      The world must not be used by any other thread from then on.
+      Listener - receives the events of the world, run on the events executor
+      Profiler - receives the time of every tick and the interval between ticks, null to not profile
+    */
+    public SimulationThread(GameWorld world, GameWorld.Listener listener, Executor events, FrameProfiler profiler) {
+        this.world = world;
+        this.tickNanos = Math.round(world.getTickSeconds() * 1_000_000_000L);
+        this.profiler = profiler;
+        world.setListener(forward(listener, events));
+        world.setProfiler(profiler);
+        snapshots[front].copyFrom(world, System.nanoTime());
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+    }
+
+    // Returns a listener that runs every event of the world on the executor
+    private static GameWorld.Listener forward(GameWorld.Listener listener, Executor events) {
+        return new GameWorld.Listener() {
+            @Override
+            public void onGameStart() {
+                events.execute(listener::onGameStart);
+            }
+
+            @Override
+            public void onFlap() {
+                events.execute(listener::onFlap);
+            }
+
+            @Override
+            public void onScore(int totalScore) {
+                events.execute(() -> listener.onScore(totalScore));
+            }
+
+            @Override
+            public void onHitPipe() {
+                events.execute(listener::onHitPipe);
+            }
+
+            @Override
+            public void onGameOver(int totalScore) {
+                events.execute(() -> listener.onGameOver(totalScore));
+            }
+        };
+    }
+
+    // Starts stepping the world
+    public void start() {
+        thread.start();
+    }
+
+    // Gives the world a user input pressed now
+    public void input() {
+        input(System.nanoTime());
+    }
+
+    /*
+      Gives the world a user input on the tick due at the given time; called only by one thread, the UI thread.
+      Nanos - the time the input was pressed, from System.nanoTime()
+      Return false if too many inputs were waiting and this one was dropped
+    */
+    public boolean input(long nanos) {
+        return inputs.offer(nanos);
+    }
+
+    /*
+      Starts a new game before the next tick.
+      Seed - the seed of the game
+      ReplayInputs - the recorded inputs to give the game tick by tick, or null for a game played by the user
+    */
+    public void restart(long seed, InputRecording replayInputs) {
+        post(() -> {
+            world.reset(seed);
+            this.replayInputs = replayInputs;
+            replayIndex = 0;
+        });
+    }
+
+    // Runs an action on the thread before the next tick
+    private void post(Runnable command) {
+        commands.add(command);
+    }
+
+    /*
+      Returns the newest snapshot of the world; called only by the renderer's thread.
+      The snapshot stays unchanged until the next call.
+    */
+    public WorldSnapshot getLatest() {
+        if ((shared.get() & FRESH) != 0) {
+            front = shared.getAndSet(front) & INDEX_MASK;
+        }
+        return snapshots[front];
+    }
+
+    // Returns how far the renderer is between the ticks of a snapshot, from 0 to 1, at the given time
+    public double getAlpha(WorldSnapshot snapshot, long now) {
+        return Math.min(1, Math.max(0, (now - snapshot.getTakenNanos()) / (double) tickNanos));
+    }
+
+    // Steps the world once per tick until closed, sleeping until each tick is due
+    private void run() {
+        long nextTick = System.nanoTime();
+        while (!closed) {
+            boolean changed = runCommands();
+            long ticks = world.getTickCount();
+            applyInputs(nextTick);
+            if (replayInputs != null && !world.isGameOver()) {
+                // Give the recorded inputs of this tick, as they were given when the game was played
+                replayIndex = Replay.applyInputs(world, replayInputs, replayIndex);
+            }
+            world.tick();
+            long now = System.nanoTime();
+            if (profiler != null) {
+                profiler.endFrame(now);
+            }
+            // A game that is over does not move, so it is published once
+            if (changed || world.getTickCount() != ticks) {
+                publish(now);
+            }
+
+            nextTick += tickNanos;
+            if (now - nextTick > MAX_LAG_NANOS) {
+                nextTick = now; // Too far behind to catch up; carry on from now
+                lagResets++;
+            }
+            long wait;
+            while ((wait = nextTick - System.nanoTime()) > 0 && !closed) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    // Gives the world the inputs pressed up to the time the current tick is due
+    private void applyInputs(long dueNanos) {
+        while (!inputs.isEmpty() && inputs.peek() - dueNanos <= 0) {
+            long pressed = inputs.poll();
+            int recorded = world.getRecording().size();
+            world.onUserInput();
+            if (world.getRecording().size() != recorded) {
+                acceptedInputs++;
+                lastInputNanos = pressed;
+            }
+        }
+    }
+
+    // Runs the posted commands, return true if there were any
+    private boolean runCommands() {
+        boolean ran = false;
+        Runnable command;
+        while ((command = commands.poll()) != null) {
+            command.run();
+            ran = true;
+        }
+        return ran;
+    }
+
+    // Copies the world to the back buffer and makes it the shared one
+    private void publish(long now) {
+        snapshots[back].copyFrom(world, now);
+        snapshots[back].setInputs(acceptedInputs, lastInputNanos);
+        back = shared.getAndSet(back | FRESH) & INDEX_MASK;
+    }
+
+    // Returns the length of one tick in nanoseconds
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    // Returns the number of inputs dropped because too many were waiting
+    public long getDroppedInputs() {
+        return inputs.getDropped();
+    }
+
+    // Returns the number of times the thread fell so far behind that it skipped ticks
+    public long getLagResets() {
+        return lagResets;
+    }
+
+    // Stops the thread and waits briefly for the tick in progress to end
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
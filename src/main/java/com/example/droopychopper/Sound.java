@@ -1,57 +1,48 @@
 package com.example.droopychopper;
 
-import javafx.scene.media.AudioClip;
-
 
 /*
-  The Sound class represents a sound effect that can be played, looped, muted, or stopped.
-  It uses the JavaFX AudioClip class to handle the sound playback.
+  The Sound class represents a sound effect that can be played, looped, or stopped.
+  It is a handle to a sound file played by the SoundManager, which decodes each file once,
+  limits how many voices of it play at once and mutes all sounds together.
  */
 public class Sound {
-    // AudioClip object representing the sound effect
-    private AudioClip soundEffect;
-    // Boolean flag to indicate whether the sound is muted
-    private boolean isMuted = false;
+    // Path of the sound file, which identifies the sound in the SoundManager
+    private final String filePath;
 
 
     /*
       Constructor for the Sound class.
-      Initializes the AudioClip with the given file path.
       FilePath - the path to the sound file
      */
     public Sound(String filePath) {
-        soundEffect = new AudioClip(getClass().getResource(filePath).toExternalForm());
+        this.filePath = filePath;
+        SoundManager.getShared().load(filePath);
     }
 
-
-    // Play the sound effect if it is not muted.
-    public void playClip() {
-        if (!isMuted) {
-            soundEffect.play();
-        }
+    /*
+      Constructor for a sound that plays at most the given number of voices at once.
+      FilePath - the path to the sound file
+      Voices - the number of voices; starting one more stops the oldest
+     */
+    public Sound(String filePath, int voices) {
+        this(filePath);
+        SoundManager.getShared().setPolyphony(filePath, voices);
     }
 
-    // Loops the sound effect indefinitely if it is not muted
-    public void loopClip() {
-        if (!isMuted) {
-            soundEffect.setCycleCount(AudioClip.INDEFINITE);
-            soundEffect.play();
-        }
-    }
 
-    // Mutes the sound effect and stops any currently playing sound.
-    public void mute() {
-        isMuted = true;
-        soundEffect.stop();
+    // Play the sound effect if sounds are not muted.
+    public void playClip() {
+        SoundManager.getShared().play(filePath);
     }
 
-    // Unmutes the sound effect.
-    public void unmute() {
-        isMuted = false;
+    // Loops the sound effect until it is stopped, if sounds are not muted
+    public void loopClip() {
+        SoundManager.getShared().loop(filePath);
     }
 
     // Stops the sound effect if it is currently playing.
     public void stop() {
-        soundEffect.stop();
+        SoundManager.getShared().stop(filePath);
     }
 }
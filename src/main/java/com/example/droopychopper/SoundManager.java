@@ -0,0 +1,210 @@
+package com.example.droopychopper;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+  The SoundManager class plays every sound of the game. Each file is decoded once by the audio
+  backend and shared by every Sound playing it. A sound plays at most a fixed number of voices at
+  once; starting one more stops the oldest (voice stealing), so rapid flaps do not pile up.
+  One switch mutes every sound.
+  The backend is chosen with the system property "droopychopper.audio": "fx" for JavaFX AudioClip
+  (the default), "pcm" for clips decoded up front with javax.sound, or "null" for no audio at all,
+  for example on a headless build machine.
+*/
+public class SoundManager {
+    // System property choosing the audio backend
+    public static final String BACKEND_PROPERTY = "droopychopper.audio";
+    // Voices a sound may play at once unless told otherwise
+    public static final int DEFAULT_POLYPHONY = 4;
+
+    // Decodes sound files and plays them
+    public interface Backend {
+        /*
+          Decodes a sound file so that voices of it can be started quickly.
+          Path - the resource path of the sound, for example "/sounds/wing.mp3"
+        */
+        Sample load(String path) throws Exception;
+    }
+
+    // A decoded sound
+    public interface Sample {
+        // Starts a new voice of the sound, repeating until stopped if loop is true; called with the manager locked
+        Voice play(boolean loop);
+    }
+
+    // One playback of a sound
+    public interface Voice {
+        boolean isPlaying();
+
+        void stop();
+    }
+
+    // The voices of one sound file, oldest first
+    private static class Channel {
+        private final Sample sample;
+        private final ArrayDeque<Voice> voices = new ArrayDeque<>();
+        private int polyphony = DEFAULT_POLYPHONY;
+
+        private Channel(Sample sample) {
+            this.sample = sample;
+        }
+    }
+
+    // The manager used by the whole game, created on first use
+    private static SoundManager shared;
+
+    private final Backend backend;
+    private final Map<String, Channel> channels = new HashMap<>();
+    private boolean muted;
+    // Number of voices stopped to make room for new ones
+    private long stolenVoices;
+
+    // Creates a manager playing through the given backend
+    public SoundManager(Backend backend) {
+        this.backend = backend;
+    }
+
+    // Returns the manager used by the whole game, with the backend chosen by the system property
+    public static synchronized SoundManager getShared() {
+        if (shared == null) {
+            shared = new SoundManager(createBackend(System.getProperty(BACKEND_PROPERTY, "fx")));
+        }
+        return shared;
+    }
+
+    // Returns the backend with the given name, the JavaFX backend if the name is not known
+    private static Backend createBackend(String name) {
+        switch (name) {
+            case "pcm":
+                return new PcmSoundBackend();
+            case "null":
+                return new NullSoundBackend();
+            default:
+                return new FxSoundBackend();
+        }
+    }
+
+    /*
+      Decodes a sound file if it has not been decoded yet.
+      A file that cannot be decoded is reported once and then plays as silence.
+    */
+    public void load(String path) {
+        channel(path);
+    }
+
+    /*
+      Returns the voices of a sound file, decoding the file the first time.
+      The file is decoded without holding the manager's lock, so sounds load in parallel and playing
+      other sounds does not wait; two threads loading the same new file may both decode it, and the
+      first one stored is kept.
+    */
+    private Channel channel(String path) {
+        synchronized (this) {
+            Channel channel = channels.get(path);
+            if (channel != null) {
+                return channel;
+            }
+        }
+        Sample sample;
+        try {
+            sample = backend.load(path);
+        } catch (Exception e) {
+            System.err.println("Could not load sound " + path + ": " + e);
+            sample = NullSoundBackend.SILENCE;
+        }
+        synchronized (this) {
+            Channel channel = channels.get(path);
+            if (channel == null) {
+                channel = new Channel(sample);
+                channels.put(path, channel);
+            }
+            return channel;
+        }
+    }
+
+    // Sets how many voices of a sound may play at once
+    public void setPolyphony(String path, int voices) {
+        Channel channel = channel(path);
+        synchronized (this) {
+            channel.polyphony = Math.max(1, voices);
+        }
+    }
+
+    // Plays a sound once, unless sounds are muted
+    public void play(String path) {
+        start(path, false);
+    }
+
+    // Plays a sound over and over until it is stopped, unless sounds are muted
+    public void loop(String path) {
+        start(path, true);
+    }
+
+    // Starts a voice, first stopping the oldest one if the sound already plays as many as it may
+    private void start(String path, boolean loop) {
+        Channel channel = channel(path);
+        synchronized (this) {
+            if (muted) {
+                return;
+            }
+            channel.voices.removeIf(voice -> !voice.isPlaying());
+            while (channel.voices.size() >= channel.polyphony) {
+                channel.voices.poll().stop();
+                stolenVoices++;
+            }
+            channel.voices.add(channel.sample.play(loop));
+        }
+    }
+
+    // Stops every voice of a sound
+    public synchronized void stop(String path) {
+        Channel channel = channels.get(path);
+        if (channel != null) {
+            stopVoices(channel);
+        }
+    }
+
+    // Stops every voice of every sound
+    public synchronized void stopAll() {
+        for (Channel channel : channels.values()) {
+            stopVoices(channel);
+        }
+    }
+
+    private static void stopVoices(Channel channel) {
+        for (Voice voice : channel.voices) {
+            voice.stop();
+        }
+        channel.voices.clear();
+    }
+
+    // Mutes or unmutes every sound; muting also stops the sounds playing
+    public synchronized void setMuted(boolean muted) {
+        this.muted = muted;
+        if (muted) {
+            stopAll();
+        }
+    }
+
+    // Returns true if every sound is muted
+    public synchronized boolean isMuted() {
+        return muted;
+    }
+
+    // Returns the number of voices of a sound playing now
+    public synchronized int getPlayingVoices(String path) {
+        Channel channel = channels.get(path);
+        if (channel == null) {
+            return 0;
+        }
+        channel.voices.removeIf(voice -> !voice.isPlaying());
+        return channel.voices.size();
+    }
+
+    // Returns the number of voices stopped to make room for new ones
+    public synchronized long getStolenVoices() {
+        return stolenVoices;
+    }
+}
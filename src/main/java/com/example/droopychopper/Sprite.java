@@ -4,104 +4,47 @@ import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
 
-public class Sprite {
+/*
+  The Sprite class is a Body with an image attached, so it can be drawn on a GraphicsContext.
+ */
+public class Sprite extends Body {
     // Image representing the sprite
     private Image image;
 
-    // Position of the sprite
-    private double positionX;
-    private double positionY;
-
-    // Velocity of the sprite
-    private double velocityX;
-    private double velocityY;
-
-    // Dimensions of the sprite
-    private double width;
-    private double height;
-
     // Default constructor initializing position and velocity to 0
     public Sprite() {
-        this.positionX = 0;
-        this.positionY = 0;
-        this.velocityX = 0;
-        this.velocityY = 0;
+        super();
     }
 
     // Sets the image for the sprite and updates its dimensions
     public void setImage(Image image) {
         this.image = image;
-        this.width = image.getWidth();
-        this.height = image.getHeight();
+        setSize(image.getWidth(), image.getHeight());
     }
 
-    // Resizes the image and sets it for the sprite
+    // Sets the image for the sprite, resized to the given size, from the shared image cache
     public void resizeImage(String filepath, int width, int height) {
-        Image resizedImage = new Image(filepath, width, height, false, false);
+        Image resizedImage = ImageCache.getShared().get(filepath, width, height);
         setImage(resizedImage);
     }
 
-    // Sets the position of the sprite
-    public void setPositionXY(double positionX, double positionY) {
-        this.positionX = positionX;
-        this.positionY = positionY;
-    }
-
-    // Returns the X position of the sprite
-    public double getPositionX() {
-        return positionX;
-    }
-
-    // Returns the Y position of the sprite
-    public double getPositionY() {
-        return positionY;
-    }
-
-    // Sets the velocity of the sprite
-    public void setVelocity(double velocityX, double velocityY) {
-        this.velocityX = velocityX;
-        this.velocityY = velocityY;
-    }
-
-    // Adds to the current velocity of the sprite
-    public void addVelocity(double x, double y) {
-        this.velocityX += x;
-        this.velocityY += y;
-    }
-
-    // Returns the X velocity of the sprite
-    public double getVelocityX() {
-        return velocityX;
-    }
-
-    // Returns the Y velocity of the sprite
-    public double getVelocityY() {
-        return velocityY;
-    }
-
-    // Returns the width of the sprite
-    public double getWidth() {
-        return width;
-    }
-
     // Renders the sprite on the given GraphicsContext
     public void render(GraphicsContext gc) {
+        gc.drawImage(image, getPositionX(), getPositionY());
+    }
+
+    // Renders the sprite at the given position, used to draw a Body from the game world
+    public void render(GraphicsContext gc, double positionX, double positionY) {
         gc.drawImage(image, positionX, positionY);
     }
 
-    // Returns the boundary of the sprite as a Rectangle2D
+    // Returns the boundary of the sprite as a new Rectangle2D
     public Rectangle2D getBoundary() {
-        return new Rectangle2D(positionX, positionY, width, height);
+        return new Rectangle2D(getPositionX(), getPositionY(), getWidth(), getHeight());
     }
 
-    // Checks if this sprite intersects with another sprite
+    // Checks if this sprite intersects with another sprite, comparing edges without creating a Rectangle2D
     public boolean intersectsSprite(Sprite otherSprite) {
-        return otherSprite.getBoundary().intersects(this.getBoundary());
-    }
-
-    // Updates the position of the sprite based on its velocity and the given time
-    public void update(double time) {
-        positionX += velocityX * time;
-        positionY += velocityY * time;
+        return intersects(otherSprite);
     }
 }
@@ -0,0 +1,155 @@
+package com.example.droopychopper;
+
+/*
+  The WorldSnapshot class is a copy of what the renderer needs from a GameWorld after one tick:
+  the previous and current position of every body, the pipe heights, the chopper frame and the score.
+  The simulation thread fills a snapshot and hands it over whole, so the renderer never reads the
+  world while it is being stepped. Snapshots are reused; copying one allocates nothing once its
+  arrays are large enough for the pipes on screen.
+*/
+public class WorldSnapshot {
+    // Indexes of the bodies; pipe bodies follow, the up pipe of pair i at PIPES + 2i and its down pipe after it
+    public static final int CHOPPER = 0;
+    public static final int FIRST_FLOOR = 1;
+    public static final int SECOND_FLOOR = 2;
+    public static final int PIPES = 3;
+
+    // Values kept per body: previous X, previous Y, X, Y
+    private static final int BODY_VALUES = 4;
+
+    private double[] positions = new double[(PIPES + 2 * PipePool.DEFAULT_CAPACITY) * BODY_VALUES];
+    // Height and orientation of every pipe body, indexed from PIPES
+    private double[] pipeHeights = new double[2 * PipePool.DEFAULT_CAPACITY];
+    private boolean[] pipeFaceUp = new boolean[2 * PipePool.DEFAULT_CAPACITY];
+    private int pipeCount;
+
+    private int chopperFrame, totalScore;
+    private boolean gameStarted, gameOver;
+    private long seed, tickCount;
+    // System.nanoTime() when the snapshot was taken
+    private long takenNanos;
+    // Number of inputs the world accepted so far and the time the last one was pressed
+    private long inputCount, lastInputNanos;
+
+    /*
+      Copies the state of the world; called only by the thread stepping the world.
+      Now - the time of the copy from System.nanoTime()
+    */
+    public void copyFrom(GameWorld world, long now) {
+        PipePool pipes = world.getPipes();
+        pipeCount = 2 * pipes.size();
+        if (pipeCount > pipeHeights.length) {
+            positions = new double[(PIPES + pipeCount) * BODY_VALUES];
+            pipeHeights = new double[pipeCount];
+            pipeFaceUp = new boolean[pipeCount];
+        }
+        copyBody(CHOPPER, world.getChopper());
+        copyBody(FIRST_FLOOR, world.getFirstFloor());
+        copyBody(SECOND_FLOOR, world.getSecondFloor());
+        for (int i = 0; i < pipes.size(); i++) {
+            PipePair pair = pipes.get(i);
+            copyPipe(2 * i, pair.getUpPipe());
+            copyPipe(2 * i + 1, pair.getDownPipe());
+        }
+
+        chopperFrame = world.getChopperFrame();
+        totalScore = world.getTotalScore();
+        gameStarted = world.isGameStarted();
+        gameOver = world.isGameOver();
+        seed = world.getSeed();
+        tickCount = world.getTickCount();
+        takenNanos = now;
+    }
+
+    // Sets the inputs accepted by the world up to the tick of the snapshot, counted over all games
+    public void setInputs(long inputCount, long lastInputNanos) {
+        this.inputCount = inputCount;
+        this.lastInputNanos = lastInputNanos;
+    }
+
+    private void copyPipe(int pipe, Pipe source) {
+        copyBody(PIPES + pipe, source.getPipe());
+        pipeHeights[pipe] = source.getPipe().getHeight();
+        pipeFaceUp[pipe] = source.isFaceUp();
+    }
+
+    private void copyBody(int body, Body source) {
+        int offset = body * BODY_VALUES;
+        positions[offset] = source.getPreviousX();
+        positions[offset + 1] = source.getPreviousY();
+        positions[offset + 2] = source.getPositionX();
+        positions[offset + 3] = source.getPositionY();
+    }
+
+    // Returns the X position of a body between the start and the end of the tick, alpha from 0 to 1
+    public double getX(int body, double alpha) {
+        int offset = body * BODY_VALUES;
+        return positions[offset] + (positions[offset + 2] - positions[offset]) * alpha;
+    }
+
+    // Returns the Y position of a body between the start and the end of the tick, alpha from 0 to 1
+    public double getY(int body, double alpha) {
+        int offset = body * BODY_VALUES;
+        return positions[offset + 1] + (positions[offset + 3] - positions[offset + 1]) * alpha;
+    }
+
+    // Returns the number of pipes, two per pair
+    public int getPipeCount() {
+        return pipeCount;
+    }
+
+    // Returns the height of a pipe, from 0 to getPipeCount()
+    public double getPipeHeight(int pipe) {
+        return pipeHeights[pipe];
+    }
+
+    // Returns true if a pipe stands on the floor, false if it hangs from the top
+    public boolean isPipeFaceUp(int pipe) {
+        return pipeFaceUp[pipe];
+    }
+
+    // Returns the current frame of the chopper flight animation
+    public int getChopperFrame() {
+        return chopperFrame;
+    }
+
+    // Returns the score when the snapshot was taken
+    public int getTotalScore() {
+        return totalScore;
+    }
+
+    // Returns true once the first input started the game
+    public boolean isGameStarted() {
+        return gameStarted;
+    }
+
+    // Returns true once the chopper hit the floor
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    // Returns the seed of the game
+    public long getSeed() {
+        return seed;
+    }
+
+    // Returns the number of ticks run in the game
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    // Returns the number of inputs accepted up to the tick of the snapshot; a new count means a new input to show
+    public long getInputCount() {
+        return inputCount;
+    }
+
+    // Returns the time the last accepted input was pressed, from System.nanoTime()
+    public long getLastInputNanos() {
+        return lastInputNanos;
+    }
+
+    // Returns the time the snapshot was taken, from System.nanoTime()
+    public long getTakenNanos() {
+        return takenNanos;
+    }
+}
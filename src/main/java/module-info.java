@@ -2,6 +2,7 @@ module com.example.droopychopper {
     requires javafx.controls;
     requires javafx.fxml;
     requires javafx.media;
+    requires java.desktop;
 
 
     opens com.example.droopychopper to javafx.fxml;